@@ -21,19 +21,22 @@
 package eu.europa.ec.dgc.booking.controller;
 
 import eu.europa.ec.dgc.booking.dto.BoardingPassDto;
+import eu.europa.ec.dgc.booking.dto.RenderedResponse;
+import eu.europa.ec.dgc.booking.service.BookingResponseRenderer;
 import eu.europa.ec.dgc.booking.service.BookingService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.convert.ConversionService;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @Slf4j
 @RestController
@@ -44,20 +47,32 @@ public class BoardingController {
 
     private final BookingService bookingService;
 
-    private final ConversionService converter;
+    private final BookingResponseRenderer renderer;
 
+    /**
+     * Boarding pass of the passenger. The ETag is the version of the booking, a matching If-None-Match is answered
+     * with 304 before the booking is loaded. The body is rendered once per version of the booking.
+     * 
+     * @param passengerId Subject ID
+     * @param request {@link WebRequest}
+     * @return {@link BoardingPassDto} as {@link RenderedResponse}
+     */
     @Operation(summary = "Booking Route", description = "Booking Route")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "OK"),
+        @ApiResponse(responseCode = "200", description = "OK",
+            content = @Content(schema = @Schema(implementation = BoardingPassDto.class))),
+        @ApiResponse(responseCode = "304", description = "Not Modified"),
         @ApiResponse(responseCode = "400", description = "Bad Request / Validation errors"),
         @ApiResponse(responseCode = "404", description = "Not Found"),
         @ApiResponse(responseCode = "500", description = "Internal Server Error"),
         @ApiResponse(responseCode = "501", description = "Not Implemented")
     })
-    @ResponseStatus(code = HttpStatus.OK)
     @GetMapping(path = PATH_PASS, produces = MediaType.APPLICATION_JSON_VALUE)
-    public BoardingPassDto boardingPass(@PathVariable(value = "subject", required = true) String passengerId) {
+    public ResponseEntity<RenderedResponse> boardingPass(
+            @PathVariable(value = "subject", required = true) String passengerId, final WebRequest request) {
         log.debug("Incoming POST request to '{}' with passenger ID '{}'", PATH_PASS, passengerId);
-        return this.converter.convert(bookingService.getByPassengerId(passengerId), BoardingPassDto.class);
+        final long version = bookingService.getVersionByPassengerId(passengerId);
+        return RenderedResponses.notModified(version, request)
+                .orElseGet(() -> RenderedResponses.ok(this.renderer.boardingPass(passengerId, version), request));
     }
 }
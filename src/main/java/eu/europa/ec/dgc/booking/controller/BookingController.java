@@ -20,27 +20,35 @@
 
 package eu.europa.ec.dgc.booking.controller;
 
+import eu.europa.ec.dgc.booking.dto.BookingImportResult;
 import eu.europa.ec.dgc.booking.dto.BookingReplaceRequest;
 import eu.europa.ec.dgc.booking.dto.BookingRequest;
 import eu.europa.ec.dgc.booking.dto.BookingResponse;
 import eu.europa.ec.dgc.booking.dto.DevDccStatus;
+import eu.europa.ec.dgc.booking.dto.RenderedResponse;
 import eu.europa.ec.dgc.booking.entity.BookingEntity;
-import eu.europa.ec.dgc.booking.exception.BookingNotFoundException;
+import eu.europa.ec.dgc.booking.exception.BookingBadRequestException;
+import eu.europa.ec.dgc.booking.service.BookingImportService;
+import eu.europa.ec.dgc.booking.service.BookingResponseRenderer;
 import eu.europa.ec.dgc.booking.service.BookingService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.convert.ConversionService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 @Slf4j
@@ -52,76 +60,130 @@ public class BookingController {
 
     private static final String PATH_REPLACE = "/booking/replace";
 
+    private static final String PATH_IMPORT = "/booking/import";
+
+    private static final String TOTAL_COUNT = "X-Total-Count";
+
     private final BookingService bookingService;
 
-    private final ConversionService converter;
+    private final BookingResponseRenderer renderer;
+
+    private final BookingImportService importService;
 
     /**
      * Create new Booking in Session.
      * 
      * @param booking Data that will be created
      * @param dccStatus Dev mode, changing status.
-     * @return current Booking object
+     * @param page zero-based page of the passengers, used with size
+     * @param size passengers per page, all passengers if not set
+     * @return current Booking object, {@link BookingResponse} as {@link RenderedResponse}
      */
     @Operation(summary = "Booking Route", description = "Booking Route")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "OK"),
+        @ApiResponse(responseCode = "200", description = "OK",
+            content = @Content(schema = @Schema(implementation = BookingResponse.class))),
         @ApiResponse(responseCode = "400", description = "Bad Request / Validation errors"),
         @ApiResponse(responseCode = "404", description = "Not Found"),
         @ApiResponse(responseCode = "415", description = "Unsupported Media Type"),
         @ApiResponse(responseCode = "500", description = "Internal Server Error"),
         @ApiResponse(responseCode = "501", description = "Not Implemented")
     })
-    @ResponseStatus(code = HttpStatus.OK)
     @PostMapping(path = PATH, 
         consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public BookingResponse booking(
+    public ResponseEntity<RenderedResponse> booking(
             @Valid @RequestBody final BookingRequest booking,
             @RequestParam(name = "setDccStatus", required = false) final DevDccStatus dccStatus,
+            @RequestParam(name = "page", defaultValue = "0") final int page,
+            @RequestParam(name = "size", required = false) final Integer size,
             HttpSession session) {
         final String sessionId = session.getId();
         log.debug("Incoming POST request to '{}' with content '{}', optional dccStatus '{}' and sessionId '{}'",
                 PATH, booking, dccStatus, sessionId);
-        bookingService.create(sessionId, booking, dccStatus);
-
-        try {
-            final String reference = booking.getBookingReference();
-            if (reference != null && reference.startsWith("preset")) {
-                return converter.convert(bookingService
-                        .getByReference(reference), BookingResponse.class);
-            } else {
-                return converter.convert(bookingService
-                        .getBySessionId(sessionId), BookingResponse.class);
-            }
-        } catch (BookingNotFoundException e) {
-            return converter.convert(bookingService
-                    .getBySessionId(sessionId), BookingResponse.class);
-        }
+        validatePage(page, size);
+        final BookingEntity entity = bookingService.create(sessionId, booking, dccStatus);
+        return this.paged(BookingResponseRenderer.ENDPOINT_BOOKING, entity, page, size);
     }
 
     /**
      * Replace Booking Data.
      * 
      * @param request {@link BookingReplaceRequest}
+     * @param page zero-based page of the passengers, used with size
+     * @param size passengers per page, all passengers if not set
      * @param session {@link HttpSession}
-     * @return {@link BookingResponse}
+     * @return {@link BookingResponse} as {@link RenderedResponse}
      */
     @Operation(summary = "Replace Booking Data", description = "Replace Booking Data")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "OK"),
+        @ApiResponse(responseCode = "200", description = "OK",
+            content = @Content(schema = @Schema(implementation = BookingResponse.class))),
         @ApiResponse(responseCode = "400", description = "Bad Request / Validation errors"),
         @ApiResponse(responseCode = "415", description = "Unsupported Media Type"),
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
-    @ResponseStatus(code = HttpStatus.OK)
     @PostMapping(path = PATH_REPLACE, 
         consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public BookingResponse replace(
-            @Valid @RequestBody final BookingReplaceRequest request, final HttpSession session) {
+    public ResponseEntity<RenderedResponse> replace(
+            @Valid @RequestBody final BookingReplaceRequest request,
+            @RequestParam(name = "page", defaultValue = "0") final int page,
+            @RequestParam(name = "size", required = false) final Integer size,
+            final HttpSession session) {
         final String sessionId = session.getId();
         log.debug("Incoming POST request to '{}' with content '{}' and sessionId '{}'",
                 PATH_REPLACE, request, sessionId);
+        validatePage(page, size);
         final BookingEntity entity = bookingService.replace(sessionId, request);
-        return converter.convert(entity, BookingResponse.class);
+        return this.paged(BookingResponseRenderer.ENDPOINT_REPLACE, entity, page, size);
+    }
+
+    /**
+     * Import Bookings. Replaces the bookings of an NDJSON stream of {@link BookingReplaceRequest}, every booking is
+     * written to a new session. No HTTP session owns these sessions, so imported bookings expire with the TTL
+     * "booking.expiry.ttl-seconds" (24 hours by default) after the import, unless their reference is a preset
+     * reference.
+     * 
+     * @param input NDJSON with one {@link BookingReplaceRequest} per line
+     * @param response NDJSON with one {@link BookingImportResult} per line
+     * @throws IOException if the request cannot be read or the response cannot be written
+     */
+    @Operation(summary = "Import Bookings",
+        description = "Replaces bookings from NDJSON, one replace request per line, and returns one result per line. "
+            + "Imported bookings are deleted after the booking TTL (24 hours by default), except preset bookings")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "OK",
+            content = @Content(schema = @Schema(implementation = BookingImportResult.class))),
+        @ApiResponse(responseCode = "415", description = "Unsupported Media Type"),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @PostMapping(path = PATH_IMPORT,
+        consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importBookings(final InputStream input, final HttpServletResponse response) throws IOException {
+        log.debug("Incoming POST request to '{}'", PATH_IMPORT);
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        this.importService.importBookings(input, response.getOutputStream());
+    }
+
+    /**
+     * Rejects an invalid passenger page before the booking is changed.
+     */
+    private static void validatePage(final int page, final Integer size) {
+        if (page < 0 || (size != null && size < 1)) {
+            throw new BookingBadRequestException(
+                    String.format("Invalid passenger page '%d' with size '%s'", page, size));
+        }
+    }
+
+    /**
+     * Renders one page of the passengers of large group bookings, the total number of passengers is returned in the
+     * header "X-Total-Count". The page is validated by {@link #validatePage(int, Integer)}.
+     */
+    private ResponseEntity<RenderedResponse> paged(final String endpoint, final BookingEntity entity, final int page,
+            final Integer size) {
+        final BookingEntity view = size == null ? entity : entity.passengerPage(page, size);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT, String.valueOf(entity.getPassengers().size()))
+                .body(this.renderer.booking(endpoint, view));
     }
 }
@@ -0,0 +1,154 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.controller;
+
+import eu.europa.ec.dgc.booking.dto.RenderedResponse;
+import java.util.Locale;
+import java.util.Optional;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Builds responses with a {@link RenderedResponse} body.
+ */
+final class RenderedResponses {
+
+    private static final String GZIP = "gzip";
+
+    // alias of gzip, RFC 9110 section 8.4.1.3
+    private static final String X_GZIP = "x-gzip";
+
+    private static final String ANY = "*";
+
+    private static final String QUALITY = "q=";
+
+    private static final String GZIP_ETAG_SUFFIX = "-gz";
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private RenderedResponses() {
+    }
+
+    /**
+     * Response with the version of the booking as ETag. The gzip body is sent if the client accepts it, see
+     * {@link #acceptsGzip(String)}, with the suffix "-gz" on the ETag so that the two encodings of one version never
+     * share a strong ETag.
+     *
+     * @param response {@link RenderedResponse}
+     * @param request {@link WebRequest}
+     * @return {@link ResponseEntity}
+     */
+    static ResponseEntity<RenderedResponse> ok(final RenderedResponse response, final WebRequest request) {
+        final boolean gzip = response.getGzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        final ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(entityTag(response.getVersion(), gzip))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return builder.body(response);
+    }
+
+    /**
+     * Not Modified response if the If-None-Match header lists the ETag of either encoding of the version, the
+     * client has stored the body it was sent. The ETag of the response is the one that matched.
+     *
+     * @param version current version of the booking
+     * @param request {@link WebRequest}
+     * @return {@link ResponseEntity}, empty if the body has to be sent
+     */
+    static Optional<ResponseEntity<RenderedResponse>> notModified(final long version, final WebRequest request) {
+        final String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return Optional.empty();
+        }
+        final String identity = quote(entityTag(version, false));
+        final String gzip = quote(entityTag(version, true));
+        for (final String element : ifNoneMatch.split(",")) {
+            String tag = element.trim();
+            // If-None-Match uses the weak comparison, RFC 9110 section 13.1.2
+            if (tag.startsWith(WEAK_PREFIX)) {
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (ANY.equals(tag)) {
+                tag = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)) ? gzip : identity;
+            }
+            if (identity.equals(tag) || gzip.equals(tag)) {
+                return Optional.of(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(tag)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                        .build());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Whether the Accept-Encoding header accepts gzip. "gzip" and "x-gzip" with a quality above 0 accept it, "*" only
+     * if neither of them is listed. A quality of 0 or one that cannot be parsed does not accept the coding.
+     *
+     * @param acceptEncoding value of the Accept-Encoding header, may be null
+     * @return true if the gzip body may be sent
+     */
+    static boolean acceptsGzip(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean listed = false;
+        boolean gzip = false;
+        boolean any = false;
+        for (final String element : acceptEncoding.split(",")) {
+            final String[] parameters = element.split(";");
+            final String coding = parameters[0].trim().toLowerCase(Locale.ROOT);
+            if (GZIP.equals(coding) || X_GZIP.equals(coding)) {
+                listed = true;
+                gzip |= quality(parameters) > 0;
+            } else if (ANY.equals(coding)) {
+                any = quality(parameters) > 0;
+            }
+        }
+        return listed ? gzip : any;
+    }
+
+    private static String entityTag(final long version, final boolean gzip) {
+        return gzip ? version + GZIP_ETAG_SUFFIX : String.valueOf(version);
+    }
+
+    private static String quote(final String tag) {
+        return '"' + tag + '"';
+    }
+
+    private static double quality(final String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            final String parameter = parameters[i].trim().toLowerCase(Locale.ROOT);
+            if (parameter.startsWith(QUALITY)) {
+                try {
+                    return Double.parseDouble(parameter.substring(QUALITY.length()).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
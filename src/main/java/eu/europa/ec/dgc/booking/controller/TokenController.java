@@ -21,20 +21,23 @@
 package eu.europa.ec.dgc.booking.controller;
 
 import eu.europa.ec.dgc.booking.dto.BookingResponse;
+import eu.europa.ec.dgc.booking.dto.RenderedResponse;
+import eu.europa.ec.dgc.booking.service.BookingResponseRenderer;
 import eu.europa.ec.dgc.booking.service.BookingService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.convert.ConversionService;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @Slf4j
 @RestController
@@ -45,30 +48,41 @@ public class TokenController {
 
     private final BookingService bookingService;
 
-    private final ConversionService converter;
+    private final BookingResponseRenderer renderer;
 
     /**
-     * Information about the passenger and other general information.
+     * Information about the passenger and other general information. The ETag is the version of the booking, without
+     * service ID a matching If-None-Match is answered with 304 before the booking is loaded. The body is rendered
+     * once per version of the booking.
      * 
      * @param passengerId Subject ID
      * @param serviceId Service ID that was used
-     * @return {@link BookingResponse}
+     * @param request {@link WebRequest}
+     * @return {@link BookingResponse} as {@link RenderedResponse}
      */
     @Operation(summary = "Token Route (private)", description = "Token Route (private)")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "OK"),
+        @ApiResponse(responseCode = "200", description = "OK",
+            content = @Content(schema = @Schema(implementation = BookingResponse.class))),
+        @ApiResponse(responseCode = "304", description = "Not Modified"),
         @ApiResponse(responseCode = "400", description = "Bad Request / Validation errors"),
         @ApiResponse(responseCode = "404", description = "Not Found"),
         @ApiResponse(responseCode = "500", description = "Internal Server Error"),
         @ApiResponse(responseCode = "501", description = "Not Implemented")
     })
-    @ResponseStatus(code = HttpStatus.OK)
     @GetMapping(path = PATH, produces = MediaType.APPLICATION_JSON_VALUE)
-    public BookingResponse tokencontent(
+    public ResponseEntity<RenderedResponse> tokencontent(
             @PathVariable(value = "subject", required = true) final String passengerId,
-            @RequestParam(value = "service", required = false) final String serviceId) {
+            @RequestParam(value = "service", required = false) final String serviceId,
+            final WebRequest request) {
         log.debug("Incoming GET request to '{}' with passenger ID '{}' and service ID '{}'",
                 PATH, passengerId, serviceId);
-        return converter.convert(bookingService.getOnlyPassengerId(passengerId, serviceId), BookingResponse.class);
+        // a service ID changes the booking, the request is never answered from the client cache
+        if (serviceId != null && !serviceId.isBlank()) {
+            return RenderedResponses.ok(this.renderer.tokenContent(passengerId, serviceId), request);
+        }
+        final long version = bookingService.getVersionByPassengerId(passengerId);
+        return RenderedResponses.notModified(version, request)
+                .orElseGet(() -> RenderedResponses.ok(this.renderer.tokenContent(passengerId, version), request));
     }
 }
@@ -24,13 +24,16 @@ import eu.europa.ec.dgc.booking.service.BookingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.concurrent.CompletableFuture;
 import javax.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @Slf4j
 @RestController
@@ -39,6 +42,12 @@ public class ValidationController {
 
     private static final String PATH_STATUS = "/validationStatus";
 
+    private static final String PATH_STATUS_WAIT = "/validationStatus/wait";
+
+    // Milliseconds a waiting validation status request is held before 204 is returned
+    @Value("${booking.validation.wait-timeout-ms:25000}")
+    private Long waitTimeout;
+
     private final BookingService bookingService;
 
     /**
@@ -63,4 +72,29 @@ public class ValidationController {
         }
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
+
+    /**
+     * Return status of the booking reference, waits until the DCC status of all passengers is set. The request is
+     * held without a worker thread and answered as soon as the last result is stored.
+     * 
+     * @return HttpStatus 200 or 204 after the wait timeout
+     */
+    @Operation(summary = "Waiting Validation Status Route", description = "Waiting Validation Status Route")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "OK"),
+        @ApiResponse(responseCode = "204", description = "No content"),
+        @ApiResponse(responseCode = "404", description = "Not Found"),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @GetMapping(path = PATH_STATUS_WAIT)
+    public DeferredResult<ResponseEntity<Void>> awaitValidationStatus(final HttpSession session) {
+        final String sessionId = session.getId();
+        log.debug("Incoming GET request to '{}' with session ID '{}'", PATH_STATUS_WAIT, sessionId);
+        final DeferredResult<ResponseEntity<Void>> result = new DeferredResult<>(
+                this.waitTimeout, ResponseEntity.status(HttpStatus.NO_CONTENT).build());
+        final CompletableFuture<Void> waiter = bookingService.awaitDccBySessionId(sessionId);
+        waiter.thenRun(() -> result.setResult(ResponseEntity.ok().build()));
+        result.onCompletion(() -> waiter.cancel(false));
+        return result;
+    }
 }
@@ -0,0 +1,68 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.converter;
+
+import eu.europa.ec.dgc.booking.dto.RenderedResponse;
+import java.io.IOException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * Writes a {@link RenderedResponse} as it is. The gzip body is written if the response has the header
+ * "Content-Encoding: gzip".
+ */
+public class RenderedResponseHttpMessageConverter extends AbstractHttpMessageConverter<RenderedResponse> {
+
+    private static final String GZIP = "gzip";
+
+    public RenderedResponseHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(final Class<?> clazz) {
+        return RenderedResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(final MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected RenderedResponse readInternal(final Class<? extends RenderedResponse> clazz,
+            final HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Rendered responses are write only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(final RenderedResponse response, final HttpOutputMessage outputMessage)
+            throws IOException {
+        final boolean gzip = GZIP.equals(outputMessage.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        final byte[] body = gzip ? response.getGzip() : response.getJson();
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+}
@@ -0,0 +1,58 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of one line of a bulk booking import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookingImportResult {
+
+    private long line;
+
+    private Status status;
+
+    private String reference;
+
+    private List<String> errors;
+
+    public enum Status {
+
+        // the booking was written
+        IMPORTED,
+
+        // the line is no valid booking, nothing was written
+        INVALID,
+
+        // the batch with the line could not be written
+        FAILED;
+    }
+}
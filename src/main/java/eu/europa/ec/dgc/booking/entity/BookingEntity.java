@@ -20,32 +20,184 @@
 
 package eu.europa.ec.dgc.booking.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.UUID;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Data
 public class BookingEntity {
 
+    // groups with fewer passengers are scanned, the scan is cheaper than building and keeping the index
+    static final int PASSENGER_INDEX_THRESHOLD = 16;
+
     private String reference;
 
-    private OffsetDateTime time = OffsetDateTime.now();
+    private OffsetDateTime time;
+
+    private List<PassengerEntity> passengers = new PassengerList();
+
+    private FlightInfoEntity flightInfo;
 
-    private List<PassengerEntity> passengers = new ArrayList<>();
+    // version of the stored booking, maintained by the store
+    @JsonIgnore
+    private long version;
 
-    private FlightInfoEntity flightInfo = FlightInfoEntity.random();
+    // position of each passenger by ID, built on the first lookup in a large group and shared by copies, it is
+    // rebuilt only after the passenger list was modified, so a passenger ID must not change in the booking
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile PassengerPositions passengerIndex;
 
     /**
-     * Constructor. Set current timestamp (now) to "time". Set random "flightInfo".
+     * Constructor. Creates an empty booking, used for deserialization and conversion.
      */
     public BookingEntity() {
     }
 
+    /**
+     * Create a demo BookingEntity with current timestamp (now) as "time" and random "flightInfo".
+     * 
+     * @param reference booking reference
+     * @param syntheticData source of the flight info
+     * @return {@link BookingEntity}
+     */
+    public static BookingEntity random(final String reference, final SyntheticData syntheticData) {
+        final BookingEntity entity = new BookingEntity();
+        entity.reference = reference;
+        entity.time = OffsetDateTime.now();
+        entity.flightInfo = FlightInfoEntity.random(syntheticData);
+        return entity;
+    }
+
+    /**
+     * Creates a copy that can be changed without affecting this booking. Passengers are copied, flight info and
+     * DCC status are shared because they are never changed after creation.
+     * 
+     * @return {@link BookingEntity}
+     */
+    public BookingEntity copy() {
+        final BookingEntity copy = new BookingEntity();
+        copy.reference = this.reference;
+        copy.time = this.time;
+        copy.flightInfo = this.flightInfo;
+        copy.version = this.version;
+        copy.passengers = new PassengerList(this.passengers.size());
+        this.passengers.forEach(passenger -> copy.passengers.add(passenger.copy()));
+        copy.passengerIndex = this.shareIndex(copy.passengers);
+        return copy;
+    }
+
+    /**
+     * Creates a copy that contains only a copy of the passenger with the ID, without copying the other passengers.
+     * 
+     * @param passengerId ID as UUID
+     * @return {@link Optional} of {@link BookingEntity}, empty if the booking has no passenger with the ID
+     */
+    public Optional<BookingEntity> copyWithPassenger(final UUID passengerId) {
+        return this.indexOfPassenger(passengerId).stream().mapToObj(position -> {
+            final BookingEntity copy = this.shallowCopy();
+            copy.passengers = new PassengerList(List.of(this.passengers.get(position).copy()));
+            return copy;
+        }).findAny();
+    }
+
+    /**
+     * Creates a copy that contains only a copy of the first passenger, without copying the other passengers.
+     * 
+     * @return {@link BookingEntity}
+     */
+    public BookingEntity copyWithFirstPassenger() {
+        final BookingEntity copy = this.shallowCopy();
+        copy.passengers = new PassengerList(1);
+        if (!this.passengers.isEmpty()) {
+            copy.passengers.add(this.passengers.get(0).copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Creates a copy in which only the passenger with the ID is copied and can be changed, all other passengers are
+     * shared with this booking and must not be changed.
+     * 
+     * @param passengerId ID as UUID
+     * @return {@link Optional} of {@link BookingEntity}, empty if the booking has no passenger with the ID
+     */
+    public Optional<BookingEntity> copyForPassengerChange(final UUID passengerId) {
+        return this.indexOfPassenger(passengerId).stream().mapToObj(position -> {
+            final BookingEntity copy = this.shallowCopy();
+            copy.passengers = new PassengerList(this.passengers);
+            copy.passengers.set(position, this.passengers.get(position).copy());
+            copy.passengerIndex = this.shareIndex(copy.passengers);
+            return copy;
+        }).findAny();
+    }
+
+    /**
+     * Creates a read-only view with one page of the passengers, the passengers are shared with this booking.
+     * 
+     * @param page zero-based page number
+     * @param size number of passengers per page
+     * @return {@link BookingEntity}
+     */
+    public BookingEntity passengerPage(final int page, final int size) {
+        final int from = (int) Math.min((long) page * size, this.passengers.size());
+        final int to = (int) Math.min((long) from + size, this.passengers.size());
+        final BookingEntity view = this.shallowCopy();
+        view.passengers = Collections.unmodifiableList(this.passengers.subList(from, to));
+        return view;
+    }
+
+    /**
+     * Sets the passengers, the list is copied into a list that counts its modifications for the passenger index.
+     * 
+     * @param passengers {@link List} of {@link PassengerEntity}
+     */
+    public void setPassengers(final List<PassengerEntity> passengers) {
+        this.passengers = passengers == null || passengers instanceof PassengerList
+                ? passengers : new PassengerList(passengers);
+        this.passengerIndex = null;
+    }
+
+    /**
+     * Makes the passenger list read-only, for bookings that are shared and must not be changed. The passenger index
+     * is kept.
+     */
+    public void makePassengersReadOnly() {
+        final List<PassengerEntity> readOnly = Collections.unmodifiableList(this.passengers);
+        this.passengerIndex = this.shareIndex(readOnly);
+        this.passengers = readOnly;
+    }
+
+    /**
+     * Counts the passengers without DCC status.
+     * 
+     * @return number of passengers without DCC status
+     */
+    public int countPendingDcc() {
+        return (int) this.passengers.stream()
+                .filter(passenger -> passenger.getDccStatus() == null)
+                .count();
+    }
+
     /**
      * Add PassengerEntity to current {@link List}.
      * 
@@ -77,8 +229,91 @@ public class BookingEntity {
      * @return {@link Optional} of {@link PassengerEntity}
      */
     public Optional<PassengerEntity> getPassengerById(final UUID passengerId) {
-        return this.passengers.stream()
-                .filter(passenger -> passenger.getId().equals(passengerId))
+        return this.indexOfPassenger(passengerId).stream()
+                .mapToObj(this.passengers::get)
                 .findAny();
     }
+
+    private OptionalInt indexOfPassenger(final UUID passengerId) {
+        if (passengerId == null) {
+            return OptionalInt.empty();
+        }
+        if (this.passengers.size() < PASSENGER_INDEX_THRESHOLD) {
+            return this.scanForPassenger(passengerId);
+        }
+        PassengerPositions index = this.passengerIndex;
+        if (index == null || index.modifications != modifications(this.passengers)) {
+            // first lookup or the passenger list was modified since the index was built
+            index = new PassengerPositions(this.buildPassengerIndex(), modifications(this.passengers));
+            this.passengerIndex = index;
+        }
+        // a miss on a current index is final
+        final Integer position = index.positions.get(passengerId);
+        if (position == null) {
+            return OptionalInt.empty();
+        }
+        if (position < this.passengers.size() && this.passengers.get(position).hasId(passengerId)) {
+            return OptionalInt.of(position);
+        }
+        // the ID of a passenger in the list was changed, which is not counted as modification of the list
+        return this.scanForPassenger(passengerId);
+    }
+
+    /**
+     * Returns the index of this booking for a list with the same passengers in the same positions, if it is current.
+     */
+    private PassengerPositions shareIndex(final List<PassengerEntity> passengers) {
+        final PassengerPositions index = this.passengerIndex;
+        if (index == null || index.modifications != modifications(this.passengers)) {
+            return null;
+        }
+        return new PassengerPositions(index.positions, modifications(passengers));
+    }
+
+    /**
+     * Modification count of the passenger list, lists other than {@link PassengerList} are read-only views.
+     */
+    private static int modifications(final List<PassengerEntity> passengers) {
+        return passengers instanceof PassengerList ? ((PassengerList) passengers).modifications() : 0;
+    }
+
+    private OptionalInt scanForPassenger(final UUID passengerId) {
+        for (int i = 0; i < this.passengers.size(); i++) {
+            if (this.passengers.get(i).hasId(passengerId)) {
+                return OptionalInt.of(i);
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    private Map<UUID, Integer> buildPassengerIndex() {
+        final Map<UUID, Integer> index = new HashMap<>(this.passengers.size() * 4 / 3 + 1);
+        for (int i = 0; i < this.passengers.size(); i++) {
+            final UUID id = this.passengers.get(i).getId();
+            if (id != null) {
+                index.putIfAbsent(id, i);
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private BookingEntity shallowCopy() {
+        final BookingEntity copy = new BookingEntity();
+        copy.reference = this.reference;
+        copy.time = this.time;
+        copy.flightInfo = this.flightInfo;
+        copy.version = this.version;
+        return copy;
+    }
+
+    /**
+     * Positions of the passengers by ID and the modification count of the passenger list they were read from.
+     */
+    @RequiredArgsConstructor
+    private static final class PassengerPositions {
+
+        private final Map<UUID, Integer> positions;
+
+        private final int modifications;
+    }
 }
@@ -20,14 +20,20 @@
 
 package eu.europa.ec.dgc.booking.entity;
 
+import java.time.Instant;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
 import javax.persistence.Table;
 import lombok.Data;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_reference", columnList = "reference"),
+    @Index(name = "idx_bookings_saved_at", columnList = "saved_at")
+})
 @Data
 public class BookingH2Entity {
 
@@ -38,6 +44,25 @@ public class BookingH2Entity {
     @Column(name = "reference", columnDefinition = "varchar(255)")
     private String reference;
 
-    @Column(name = "booking", columnDefinition = "varchar(2147483647)")
-    private String bookingJson;
+    // encoded by BookingCodec
+    @Lob
+    @Column(name = "booking", columnDefinition = "blob")
+    private byte[] bookingData;
+
+    // expiry of the booking starts at the last save
+    @Column(name = "saved_at", columnDefinition = "timestamp")
+    private Instant savedAt;
+
+    // number of passengers without DCC status
+    @Column(name = "pending_dcc", nullable = false)
+    private int pendingDcc;
+
+    // incremented with every write of the booking or of a passenger DCC status, starts at a monotonic value derived
+    // from the creation time, so a deleted and created again booking does not repeat versions
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // a DCC status was written to a passenger row since the last write of the booking, the rows must be read
+    @Column(name = "dcc_updated", nullable = false)
+    private boolean dccUpdated;
 }
@@ -20,8 +20,8 @@
 
 package eu.europa.ec.dgc.booking.entity;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -36,6 +36,12 @@ import lombok.extern.jackson.Jacksonized;
 @EqualsAndHashCode
 public class DccStatusEntity {
 
+    private static final String DEMO_ISSUER = Flyweights.constant("Demo issuer dgca-booking-demo-backend");
+
+    private static final String DEMO_SUB = Flyweights.constant("Demo sub");
+
+    private static final String DEMO_CONFIRMATION = Flyweights.constant("Demo confirmation");
+
     // Issuer URL
     private String issuer;
 
@@ -46,10 +52,24 @@ public class DccStatusEntity {
     private String sub;
 
     @Builder.Default
-    private List<DccStatusResultEntity> results = new ArrayList<>();
+    private List<DccStatusResultEntity> results = Collections.emptyList();
 
     private String confirmation;
 
+    /**
+     * Constructor of the builder. The demo values and the result lists of the demo DCC status are replaced by shared
+     * instances.
+     */
+    private DccStatusEntity(final String issuer, final long iat, final String sub,
+            final List<DccStatusResultEntity> results, final String confirmation) {
+        this.issuer = Flyweights.string(issuer);
+        this.iat = iat;
+        this.sub = Flyweights.string(sub);
+        this.results = Flyweights.list(results, DccStatusResultEntity.OPEN_RESULTS,
+                DccStatusResultEntity.FAILED_RESULTS, DccStatusResultEntity.PASSED_RESULTS);
+        this.confirmation = Flyweights.string(confirmation);
+    }
+
     /**
      * Build DCCStatusEntity Object with EMPTY result.
      * 
@@ -87,7 +107,7 @@ public class DccStatusEntity {
     }
 
     private static DccStatusEntityBuilder demoBuilder() {
-        return DccStatusEntity.builder().issuer("Demo issuer dgca-booking-demo-backend")
-                .iat(System.currentTimeMillis() / 1000L).sub("Demo sub").confirmation("Demo confirmation");
+        return DccStatusEntity.builder().issuer(DEMO_ISSUER)
+                .iat(System.currentTimeMillis() / 1000L).sub(DEMO_SUB).confirmation(DEMO_CONFIRMATION);
     }
 }
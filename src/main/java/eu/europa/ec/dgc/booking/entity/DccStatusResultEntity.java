@@ -20,6 +20,7 @@
 
 package eu.europa.ec.dgc.booking.entity;
 
+import java.util.List;
 import lombok.Builder;
 import lombok.Value;
 import lombok.extern.jackson.Jacksonized;
@@ -29,6 +30,33 @@ import lombok.extern.jackson.Jacksonized;
 @Value
 public class DccStatusResultEntity {
 
+    private static final String DEMO_IDENTIFIER = Flyweights.constant("Demo identifier");
+
+    private static final DccStatusResultEntity OPEN = DccStatusResultEntity.builder()
+            .identifier(DEMO_IDENTIFIER)
+            .result(Flyweights.constant("OPEN"))
+            .type(Flyweights.constant("Technical Check"))
+            .build();
+
+    private static final DccStatusResultEntity FAILED = DccStatusResultEntity.builder()
+            .identifier(DEMO_IDENTIFIER)
+            .result(Flyweights.constant("FAILED"))
+            .type(Flyweights.constant("Issuer Invalidation"))
+            .build();
+
+    private static final DccStatusResultEntity PASSED = DccStatusResultEntity.builder()
+            .identifier(DEMO_IDENTIFIER)
+            .result(Flyweights.constant("PASSED"))
+            .type(Flyweights.constant("Destination Acceptance"))
+            .build();
+
+    // Result lists of the demo DCC status, shared by all bookings
+    static final List<DccStatusResultEntity> OPEN_RESULTS = List.of(OPEN);
+
+    static final List<DccStatusResultEntity> FAILED_RESULTS = List.of(FAILED);
+
+    static final List<DccStatusResultEntity> PASSED_RESULTS = List.of(PASSED);
+
     private String identifier;
 
     private String result;
@@ -38,41 +66,40 @@ public class DccStatusResultEntity {
     private String details;
 
     /**
-     * Build DCCStatusResultEntity with OPEN result.
+     * Constructor of the builder. Values equal to the demo results are replaced by their shared instances.
+     */
+    private DccStatusResultEntity(final String identifier, final String result, final String type,
+            final String details) {
+        this.identifier = Flyweights.string(identifier);
+        this.result = Flyweights.string(result);
+        this.type = Flyweights.string(type);
+        this.details = Flyweights.string(details);
+    }
+
+    /**
+     * DCCStatusResultEntity with OPEN result.
      * 
      * @return {@link DccStatusResultEntity}
      */
     public static DccStatusResultEntity open() {
-        return DccStatusResultEntity.builder()
-                .identifier("Demo identifier")
-                .result("OPEN")
-                .type("Technical Check")
-                .build();
+        return OPEN;
     }
 
     /**
-     * Build DCCStatusResultEntity with FAILED result.
+     * DCCStatusResultEntity with FAILED result.
      * 
      * @return {@link DccStatusResultEntity}
      */
     public static DccStatusResultEntity failed() {
-        return DccStatusResultEntity.builder()
-                .identifier("Demo identifier")
-                .result("FAILED")
-                .type("Issuer Invalidation")
-                .build();
+        return FAILED;
     }
 
     /**
-     * Build DCCStatusResultEntity with PASSED result.
+     * DCCStatusResultEntity with PASSED result.
      * 
      * @return {@link DccStatusResultEntity}
      */
     public static DccStatusResultEntity passed() {
-        return DccStatusResultEntity.builder()
-                .identifier("Demo identifier")
-                .result("PASSED")
-                .type("Destination Acceptance")
-                .build();
+        return PASSED;
     }
 }
@@ -21,10 +21,8 @@
 package eu.europa.ec.dgc.booking.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.github.javafaker.Address;
-import com.github.javafaker.Faker;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
 import java.time.OffsetDateTime;
-import java.util.Arrays;
 import java.util.List;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -39,6 +37,11 @@ import lombok.extern.jackson.Jacksonized;
 @Jacksonized
 public class FlightInfoEntity {
 
+    private static final List<String> DEFAULT_CATEGORIES = List.of("Standard");
+
+    private static final List<String> DEFAULT_CONDITION_TYPES = List.of("r", "v", "t");
+
+
     @JsonProperty("from")
     private String from;
 
@@ -72,7 +75,7 @@ public class FlightInfoEntity {
     
     // demo: static value
     @Builder.Default
-    private List<String> categories = Arrays.asList("Standard");
+    private List<String> categories = DEFAULT_CATEGORIES;
     
     // demo: static value
     @JsonProperty("lang")
@@ -81,21 +84,44 @@ public class FlightInfoEntity {
    
     // demo: static value
     @Builder.Default
-    private List<String> conditionTypes = Arrays.asList("r", "v", "t");
+    private List<String> conditionTypes = DEFAULT_CONDITION_TYPES;
+
+    /**
+     * Constructor of the builder. Strings and lists that repeat in every booking are replaced by shared instances,
+     * the flight time shares the departure time if both are equal.
+     */
+    private FlightInfoEntity(final String from, final String to, final OffsetDateTime time,
+            final String countryOfArrival, final String countryOfDeparture,
+            final String regionOfArrival, final String regionOfDeparture,
+            final OffsetDateTime departureTime, final OffsetDateTime arrivalTime, final int type,
+            final List<String> categories, final String language, final List<String> conditionTypes) {
+        this.from = Flyweights.string(from);
+        this.to = Flyweights.string(to);
+        this.time = time != null && time.equals(departureTime) ? departureTime : time;
+        this.countryOfArrival = Flyweights.string(countryOfArrival);
+        this.countryOfDeparture = Flyweights.string(countryOfDeparture);
+        this.regionOfArrival = Flyweights.string(regionOfArrival);
+        this.regionOfDeparture = Flyweights.string(regionOfDeparture);
+        this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
+        this.type = type;
+        this.categories = Flyweights.list(categories, DEFAULT_CATEGORIES);
+        this.language = Flyweights.string(language);
+        this.conditionTypes = Flyweights.list(conditionTypes, DEFAULT_CONDITION_TYPES);
+    }
 
     /**
      * Create a random FlightInfoEntity that is 2 days in the future.
      * 
+     * @param syntheticData source of the cities and countries
      * @return {@link FlightInfoEntity}
      */
-    public static FlightInfoEntity random() {
-        final Address departure = new Faker().address();
-        final String countryOfDeparture = departure.countryCode();
-        final String from = departure.cityName();
+    public static FlightInfoEntity random(final SyntheticData syntheticData) {
+        final String countryOfDeparture = syntheticData.countryCode();
+        final String from = syntheticData.cityName();
         
-        final Address arrival = new Faker().address();
-        final String countryOfArrival = arrival.countryCode();
-        final String to = arrival.cityName();
+        final String countryOfArrival = syntheticData.countryCode();
+        final String to = syntheticData.cityName();
         
         final OffsetDateTime now = OffsetDateTime.now();
         final OffsetDateTime departureTime = now.plusDays(1);
@@ -0,0 +1,100 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.entity;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared instances of values that repeat in every booking. The entities are never changed after creation, so equal
+ * values can be stored once. Only the constants of the entities and the value pools of
+ * {@link eu.europa.ec.dgc.booking.utils.SyntheticData} are canonical, values from requests are replaced if they equal
+ * one of them but never added, so clients can not grow the table.
+ */
+public final class Flyweights {
+
+    private static final Map<String, String> CANONICAL = new ConcurrentHashMap<>();
+
+    private Flyweights() {
+    }
+
+    /**
+     * Makes the values canonical instances, for values generated by the server only. Values that are already
+     * registered are replaced by their canonical instance in the array.
+     *
+     * @param values strings
+     */
+    public static void register(final String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = constant(values[i]);
+        }
+    }
+
+    /**
+     * Registers a constant of an entity, see {@link #register(String[])}.
+     *
+     * @param value string
+     * @return the canonical instance
+     */
+    static String constant(final String value) {
+        return CANONICAL.computeIfAbsent(value, v -> v);
+    }
+
+    /**
+     * Returns the canonical instance of a string.
+     *
+     * @param value string or <code>null</code>
+     * @return canonical instance, the string itself if there is none
+     */
+    static String string(final String value) {
+        if (value == null) {
+            return null;
+        }
+        return CANONICAL.getOrDefault(value, value);
+    }
+
+    /**
+     * Returns one of the known lists if it is equal, an empty list is replaced by the shared empty list.
+     *
+     * @param values list or <code>null</code>
+     * @param known shared immutable lists
+     * @param <T> element type
+     * @return shared list or the list itself
+     */
+    @SafeVarargs
+    static <T> List<T> list(final List<T> values, final List<T>... known) {
+        if (values == null) {
+            return null;
+        }
+        if (values.isEmpty()) {
+            return Collections.emptyList();
+        }
+        for (final List<T> list : known) {
+            if (list.equals(values)) {
+                return list;
+            }
+        }
+        return values;
+    }
+}
@@ -20,56 +20,279 @@
 
 package eu.europa.ec.dgc.booking.entity;
 
-import com.github.javafaker.Faker;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import eu.europa.ec.dgc.booking.dto.BookingRequest;
+import eu.europa.ec.dgc.booking.utils.IdGenerator;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.UUID;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import lombok.Setter;
+import lombok.ToString;
 
+/**
+ * Passenger of a booking. ID and jti are kept as UUID bits and the birth date as epoch day, the properties are
+ * converted on access. A jti that is no UUID and a birth date in another format are kept as text. The ID is stored
+ * first, so a stored booking can be searched for a passenger without decoding the other passengers.
+ */
 @Data
+@JsonPropertyOrder({"id"})
 public class PassengerEntity {
 
     public static final DateTimeFormatter BIRTH_DATE_FORMATTER = DateTimeFormatter.ofPattern("MM-dd-yyyy");
 
-    private UUID id;
+    private static final byte HAS_ID = 1;
+
+    private static final byte HAS_JTI = 2;
+
+    private static final byte HAS_BIRTH_DAY = 4;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private long idHigh;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private long idLow;
 
-    @Setter
     private String forename;
 
-    @Setter
     private String lastname;
 
-    @Setter
-    private String birthDate;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private int birthDay;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private String birthDateText;
 
     @Setter
     private DccStatusEntity dccStatus;
 
     // service id that was used for the token
-    @Setter
     private String serviceIdUsed;
 
     // AccessTokenPayload.jti
-    private String jti;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private long jtiHigh;
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private long jtiLow;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private String jtiText;
+
+    // HAS_ID, HAS_JTI and HAS_BIRTH_DAY
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private byte present;
+
+    /**
+     * Constructor. Creates a passenger without IDs, used for deserialization and conversion.
+     */
     public PassengerEntity() {
-        this.id = UUID.randomUUID();
-        this.jti = UUID.randomUUID().toString();
+    }
+
+    private PassengerEntity(final IdGenerator idGenerator) {
+        this.setId(idGenerator.nextId());
+        this.setJti(idGenerator.nextId());
+    }
+
+    /**
+     * Passenger ID.
+     *
+     * @return {@link UUID} or <code>null</code>
+     */
+    @ToString.Include
+    public UUID getId() {
+        return (this.present & HAS_ID) != 0 ? new UUID(this.idHigh, this.idLow) : null;
+    }
+
+    /**
+     * Sets the passenger ID.
+     *
+     * @param id {@link UUID} or <code>null</code>
+     */
+    public void setId(final UUID id) {
+        if (id == null) {
+            this.idHigh = 0;
+            this.idLow = 0;
+            this.present &= ~HAS_ID;
+        } else {
+            this.idHigh = id.getMostSignificantBits();
+            this.idLow = id.getLeastSignificantBits();
+            this.present |= HAS_ID;
+        }
+    }
+
+    /**
+     * Compares the passenger ID without creating a {@link UUID}.
+     *
+     * @param id {@link UUID}
+     * @return <code>true</code> if the passenger has this ID
+     */
+    public boolean hasId(final UUID id) {
+        return id != null && (this.present & HAS_ID) != 0
+                && this.idHigh == id.getMostSignificantBits() && this.idLow == id.getLeastSignificantBits();
+    }
+
+    public void setForename(final String forename) {
+        this.forename = Flyweights.string(forename);
+    }
+
+    public void setLastname(final String lastname) {
+        this.lastname = Flyweights.string(lastname);
+    }
+
+    public void setServiceIdUsed(final String serviceIdUsed) {
+        this.serviceIdUsed = Flyweights.string(serviceIdUsed);
+    }
+
+    /**
+     * Birth date in the format of the request, usually {@link #BIRTH_DATE_FORMATTER}.
+     *
+     * @return birth date or <code>null</code>
+     */
+    @ToString.Include
+    public String getBirthDate() {
+        if ((this.present & HAS_BIRTH_DAY) != 0) {
+            return LocalDate.ofEpochDay(this.birthDay).format(BIRTH_DATE_FORMATTER);
+        }
+        return this.birthDateText;
+    }
+
+    /**
+     * Sets the birth date.
+     *
+     * @param birthDate birth date or <code>null</code>
+     */
+    public void setBirthDate(final String birthDate) {
+        this.birthDay = 0;
+        this.birthDateText = null;
+        this.present &= ~HAS_BIRTH_DAY;
+        final LocalDate date = parseBirthDate(birthDate);
+        if (date != null) {
+            this.birthDay = (int) date.toEpochDay();
+            this.present |= HAS_BIRTH_DAY;
+        } else {
+            this.birthDateText = birthDate;
+        }
+    }
+
+    /**
+     * jti of the access token.
+     *
+     * @return jti or <code>null</code>
+     */
+    @ToString.Include
+    public String getJti() {
+        if ((this.present & HAS_JTI) != 0) {
+            return new UUID(this.jtiHigh, this.jtiLow).toString();
+        }
+        return this.jtiText;
+    }
+
+    /**
+     * Sets the jti of the access token.
+     *
+     * @param jti jti or <code>null</code>
+     */
+    public void setJti(final String jti) {
+        this.jtiText = null;
+        this.setJti(parseUuid(jti));
+        if (jti != null && (this.present & HAS_JTI) == 0) {
+            this.jtiText = jti;
+        }
+    }
+
+    private void setJti(final UUID jti) {
+        if (jti == null) {
+            this.jtiHigh = 0;
+            this.jtiLow = 0;
+            this.present &= ~HAS_JTI;
+        } else {
+            this.jtiHigh = jti.getMostSignificantBits();
+            this.jtiLow = jti.getLeastSignificantBits();
+            this.present |= HAS_JTI;
+        }
+    }
+
+    // UUID if the text is the canonical form of a UUID, so that it is returned unchanged
+    private static UUID parseUuid(final String text) {
+        if (text == null || text.length() != 36) {
+            return null;
+        }
+        try {
+            final UUID uuid = UUID.fromString(text);
+            return uuid.toString().equals(text) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // date if the text is in the format of BIRTH_DATE_FORMATTER, so that it is returned unchanged
+    private static LocalDate parseBirthDate(final String text) {
+        if (text == null || text.length() != 10) {
+            return null;
+        }
+        try {
+            final LocalDate date = LocalDate.parse(text, BIRTH_DATE_FORMATTER);
+            return date.format(BIRTH_DATE_FORMATTER).equals(text) ? date : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a copy of this passenger.
+     * 
+     * @return {@link PassengerEntity}
+     */
+    public PassengerEntity copy() {
+        final PassengerEntity copy = new PassengerEntity();
+        copy.idHigh = this.idHigh;
+        copy.idLow = this.idLow;
+        copy.forename = this.forename;
+        copy.lastname = this.lastname;
+        copy.birthDay = this.birthDay;
+        copy.birthDateText = this.birthDateText;
+        copy.dccStatus = this.dccStatus;
+        copy.serviceIdUsed = this.serviceIdUsed;
+        copy.jtiHigh = this.jtiHigh;
+        copy.jtiLow = this.jtiLow;
+        copy.jtiText = this.jtiText;
+        copy.present = this.present;
+        return copy;
     }
 
     /**
      * Build PassengerEntity from frontend object {@link BookingRequest}.
      * 
      * @param bookingRequest {@link PassengerEntity}
+     * @param idGenerator generator for passenger ID and jti
      * @return {@link PassengerEntity}
      */
-    public static PassengerEntity build(BookingRequest bookingRequest) {
+    public static PassengerEntity build(BookingRequest bookingRequest, IdGenerator idGenerator) {
         PassengerEntity passengerData = new PassengerEntity();
-        if (bookingRequest.getId() != null) {
-            passengerData.id = bookingRequest.getId();
-        }
+        // only a missing passenger ID is generated
+        passengerData.setId(bookingRequest.getId() != null ? bookingRequest.getId() : idGenerator.nextId());
+        passengerData.setJti(idGenerator.nextId());
         passengerData.setForename(bookingRequest.getForename());
         passengerData.setLastname(bookingRequest.getLastname());
         passengerData.setBirthDate(bookingRequest.getBirthDate());
@@ -79,14 +302,14 @@ public class PassengerEntity {
     /**
      * Build a PassengerEntity with random first and lastname.
      * 
+     * @param idGenerator generator for passenger ID and jti
+     * @param syntheticData source of the names
      * @return {@link PassengerEntity}
      */
-    public static PassengerEntity random() {
-        Faker faker = new Faker();
-
-        PassengerEntity passengerData = new PassengerEntity();
-        passengerData.setForename(faker.name().firstName());
-        passengerData.setLastname(faker.name().lastName());
+    public static PassengerEntity random(IdGenerator idGenerator, SyntheticData syntheticData) {
+        PassengerEntity passengerData = new PassengerEntity(idGenerator);
+        passengerData.setForename(syntheticData.firstName());
+        passengerData.setLastname(syntheticData.lastName());
         return passengerData;
     }
 
@@ -94,22 +317,24 @@ public class PassengerEntity {
      * Always creates the same passenger based on the pos. Pos 0-2 are possible.
      * 
      * @param pos supports 0-2
+     * @param idGenerator generator for jti
      * @return {@link PassengerEntity}
      */
-    public static PassengerEntity immutable(int pos) {
+    public static PassengerEntity immutable(int pos, IdGenerator idGenerator) {
         PassengerEntity entity = new PassengerEntity();
+        entity.setJti(idGenerator.nextId());
         if (pos == 0) {
-            entity.id = UUID.fromString("6751B6A6-A31D-44DA-9C0F-ECCCF4F19338");
+            entity.setId(UUID.fromString("6751B6A6-A31D-44DA-9C0F-ECCCF4F19338"));
             entity.setForename("Lionel");
             entity.setLastname("Kuhic");
             entity.setBirthDate(LocalDate.of(1994, 5, 25).format(BIRTH_DATE_FORMATTER));
         } else if (pos == 1) {
-            entity.id = UUID.fromString("B67F6578-08D9-4254-BCB8-4936053865C6");
+            entity.setId(UUID.fromString("B67F6578-08D9-4254-BCB8-4936053865C6"));
             entity.setForename("Fidel");
             entity.setLastname("Lang");
             entity.setBirthDate(LocalDate.of(1978, 8, 14).format(BIRTH_DATE_FORMATTER));
         } else if (pos == 2) {
-            entity.id = UUID.fromString("CB992C09-48EC-4C5B-9303-C2DC06E7496D");
+            entity.setId(UUID.fromString("CB992C09-48EC-4C5B-9303-C2DC06E7496D"));
             entity.setForename("Demetria");
             entity.setLastname("Hagenes");
             entity.setBirthDate(LocalDate.of(2002, 4, 25).format(BIRTH_DATE_FORMATTER));
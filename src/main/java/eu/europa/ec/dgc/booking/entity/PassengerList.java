@@ -0,0 +1,76 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.entity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Passenger list of a {@link BookingEntity} that counts its modifications, so that the passenger index of the
+ * booking is only rebuilt after the list was changed. {@link ArrayList} counts the structural changes, replacements
+ * are counted here. Replacements through a sub list view are not counted.
+ */
+final class PassengerList extends ArrayList<PassengerEntity> {
+
+    private static final long serialVersionUID = 1L;
+
+    private int replacements;
+
+    /**
+     * Constructor. Creates an empty list.
+     */
+    PassengerList() {
+    }
+
+    /**
+     * Constructor. Creates an empty list with the capacity.
+     *
+     * @param initialCapacity expected number of passengers
+     */
+    PassengerList(final int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    /**
+     * Constructor. Creates a list with the passengers.
+     *
+     * @param passengers passengers in order
+     */
+    PassengerList(final Collection<? extends PassengerEntity> passengers) {
+        super(passengers);
+    }
+
+    @Override
+    public PassengerEntity set(final int index, final PassengerEntity passenger) {
+        final PassengerEntity previous = super.set(index, passenger);
+        this.replacements++;
+        return previous;
+    }
+
+    /**
+     * Returns a value that changes with every modification of the list.
+     *
+     * @return modification count
+     */
+    int modifications() {
+        return this.modCount + this.replacements;
+    }
+}
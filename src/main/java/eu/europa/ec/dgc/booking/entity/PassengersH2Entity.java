@@ -20,16 +20,25 @@
 
 package eu.europa.ec.dgc.booking.entity;
 
+import java.io.Serializable;
 import java.util.UUID;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Lob;
 import javax.persistence.Table;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.hibernate.annotations.Type;
 
 @Entity
-@Table(name = "passengers")
+@Table(name = "passengers", indexes = {
+    @Index(name = "idx_passengers_session_id", columnList = "session_id")
+})
+@IdClass(PassengersH2Entity.Key.class)
 @Data
 public class PassengersH2Entity {
 
@@ -38,6 +47,28 @@ public class PassengersH2Entity {
     @Column(name = "passenger_id", columnDefinition = "char(36)", nullable = false, updatable = false)
     private UUID id;
 
+    // passenger IDs are only unique within a booking, the same ID may be used in several sessions
+    @Id
     @Column(name = "session_id", columnDefinition = "varchar(255)", nullable = false, updatable = false)
     private String sessionId;
+
+    // DccStatusEntity encoded by BookingCodec, overrides the status in the booking
+    @Lob
+    @Column(name = "dcc_status", columnDefinition = "blob")
+    private byte[] dccStatusData;
+
+    /**
+     * Primary key of a passenger row.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private UUID id;
+
+        private String sessionId;
+    }
 }
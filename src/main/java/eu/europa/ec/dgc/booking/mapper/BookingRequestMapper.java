@@ -0,0 +1,95 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.mapper;
+
+import eu.europa.ec.dgc.booking.dto.BookingReplaceRequest;
+import eu.europa.ec.dgc.booking.dto.BookingReplaceRequest.BookingFlightInfoRequest;
+import eu.europa.ec.dgc.booking.dto.BookingReplaceRequest.DccStatusRequest;
+import eu.europa.ec.dgc.booking.dto.BookingReplaceRequest.PassengerRequest;
+import eu.europa.ec.dgc.booking.dto.BookingReplaceRequest.ResultRequest;
+import eu.europa.ec.dgc.booking.dto.ResultStatusRequest;
+import eu.europa.ec.dgc.booking.dto.ResultStatusRequest.ResultStatusDccStatusResultRequest;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusResultEntity;
+import eu.europa.ec.dgc.booking.entity.FlightInfoEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.utils.IdGenerator;
+import java.util.List;
+import org.mapstruct.IterableMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.NullValueMappingStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Maps request DTOs to entities. The implementation is generated at compile time, missing values get the same
+ * defaults the endpoints always used: the current time, generated passenger IDs and empty lists.
+ */
+@Mapper(componentModel = "spring")
+public abstract class BookingRequestMapper {
+
+    @Autowired
+    protected IdGenerator idGenerator;
+
+    /**
+     * Maps the request of POST /booking/replace and the lines of POST /booking/import to a booking.
+     *
+     * @param request {@link BookingReplaceRequest}
+     * @return {@link BookingEntity}
+     */
+    @Mapping(target = "time", defaultExpression = "java(java.time.OffsetDateTime.now())")
+    @Mapping(target = "version", ignore = true)
+    public abstract BookingEntity toBookingEntity(BookingReplaceRequest request);
+
+    /**
+     * Maps the DCC status of PUT /result.
+     *
+     * @param request {@link ResultStatusRequest}
+     * @return {@link DccStatusEntity}
+     */
+    @Mapping(target = "issuer", source = "dccStatus.issuer")
+    @Mapping(target = "iat", source = "dccStatus.iat")
+    @Mapping(target = "sub", source = "dccStatus.sub")
+    @Mapping(target = "results", source = "dccStatus.results")
+    @Mapping(target = "confirmation", ignore = true)
+    public abstract DccStatusEntity toDccStatusEntity(ResultStatusRequest request);
+
+    @IterableMapping(nullValueMappingStrategy = NullValueMappingStrategy.RETURN_DEFAULT)
+    protected abstract List<PassengerEntity> toPassengerEntities(List<PassengerRequest> requests);
+
+    @Mapping(target = "id", defaultExpression = "java(idGenerator.nextId())")
+    protected abstract PassengerEntity toPassengerEntity(PassengerRequest request);
+
+    protected abstract DccStatusEntity toPassengerDccStatusEntity(DccStatusRequest request);
+
+    @IterableMapping(nullValueMappingStrategy = NullValueMappingStrategy.RETURN_DEFAULT)
+    protected abstract List<DccStatusResultEntity> toResultEntities(List<ResultRequest> requests);
+
+    @IterableMapping(nullValueMappingStrategy = NullValueMappingStrategy.RETURN_DEFAULT)
+    protected abstract List<DccStatusResultEntity> toStatusResultEntities(
+            List<ResultStatusDccStatusResultRequest> requests);
+
+    @Mapping(target = "categories", defaultExpression = "java(new java.util.ArrayList<>())")
+    @Mapping(target = "conditionTypes", defaultExpression = "java(new java.util.ArrayList<>())")
+    protected abstract FlightInfoEntity toFlightInfoEntity(BookingFlightInfoRequest request);
+}
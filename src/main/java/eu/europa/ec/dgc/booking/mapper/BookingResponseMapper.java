@@ -0,0 +1,70 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.mapper;
+
+import eu.europa.ec.dgc.booking.dto.BoardingPassDto;
+import eu.europa.ec.dgc.booking.dto.BookingResponse;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import java.util.List;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+/**
+ * Maps stored bookings to the response DTOs. The implementation is generated at compile time, nested types
+ * (passengers, DCC status, results, flight info) are mapped by generated methods with plain getter and setter calls.
+ */
+@Mapper(componentModel = "spring")
+public interface BookingResponseMapper {
+
+    /**
+     * Maps a booking to the response of the booking endpoints and /tokencontent.
+     *
+     * @param entity {@link BookingEntity}
+     * @return {@link BookingResponse}
+     */
+    BookingResponse toBookingResponse(BookingEntity entity);
+
+    /**
+     * Maps a booking to the boarding pass, the confirmation is taken from the first passenger.
+     *
+     * @param entity {@link BookingEntity}
+     * @return {@link BoardingPassDto}
+     */
+    @Mapping(target = "confirmations", source = "passengers", qualifiedByName = "confirmations")
+    BoardingPassDto toBoardingPass(BookingEntity entity);
+
+    /**
+     * Confirmation of the first passenger.
+     *
+     * @param passengers passengers of the booking
+     * @return confirmation or <code>null</code> if the first passenger has no DCC status
+     */
+    @Named("confirmations")
+    default String confirmations(final List<PassengerEntity> passengers) {
+        if (passengers == null || passengers.isEmpty() || passengers.get(0).getDccStatus() == null) {
+            return null;
+        }
+        return passengers.get(0).getDccStatus().getConfirmation();
+    }
+}
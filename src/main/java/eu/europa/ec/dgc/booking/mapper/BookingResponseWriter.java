@@ -0,0 +1,226 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.mapper;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import eu.europa.ec.dgc.booking.dto.BookingResponse;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusResultEntity;
+import eu.europa.ec.dgc.booking.entity.FlightInfoEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the JSON of {@link BookingResponse} straight from a {@link BookingEntity}, without building the response
+ * DTOs. The output is byte for byte what the {@link ObjectMapper} writes for
+ * {@link BookingResponseMapper#toBookingResponse(BookingEntity)}: same property names and order, nulls included,
+ * timestamps written by the serializer of the {@link ObjectMapper}. A new property of {@link BookingResponse} has to
+ * be added here as well.
+ */
+@Component
+public class BookingResponseWriter {
+
+    private final JsonFactory jsonFactory;
+
+    private final ObjectWriter timeWriter;
+
+    /**
+     * Constructor.
+     *
+     * @param objectMapper {@link ObjectMapper} of the application, its factory and date format are used
+     */
+    public BookingResponseWriter(final ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.timeWriter = objectMapper.writerFor(OffsetDateTime.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes the booking as JSON to a byte array.
+     *
+     * @param booking {@link BookingEntity}
+     * @return UTF-8 encoded JSON
+     */
+    public byte[] writeAsBytes(final BookingEntity booking) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(512 + booking.getPassengers().size() * 384);
+        try {
+            this.write(booking, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the booking as JSON to the stream, the stream is not closed.
+     *
+     * @param booking {@link BookingEntity}
+     * @param out target of the UTF-8 encoded JSON
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(final BookingEntity booking, final OutputStream out) throws IOException {
+        try (JsonGenerator generator = this.jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.write(booking, generator);
+        }
+    }
+
+    /**
+     * Writes the booking as JSON object to the generator.
+     *
+     * @param booking {@link BookingEntity}
+     * @param generator {@link JsonGenerator}
+     * @throws IOException if the generator fails
+     */
+    public void write(final BookingEntity booking, final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("reference", booking.getReference());
+        this.writeTime(generator, "time", booking.getTime());
+        generator.writeFieldName("passengers");
+        final List<PassengerEntity> passengers = booking.getPassengers();
+        if (passengers == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray();
+            for (final PassengerEntity passenger : passengers) {
+                this.writePassenger(generator, passenger);
+            }
+            generator.writeEndArray();
+        }
+        this.writeFlightInfo(generator, booking.getFlightInfo());
+        generator.writeEndObject();
+    }
+
+    private void writePassenger(final JsonGenerator generator, final PassengerEntity passenger) throws IOException {
+        if (passenger == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeStringField("id", passenger.getId() != null ? passenger.getId().toString() : null);
+        generator.writeStringField("forename", passenger.getForename());
+        generator.writeStringField("lastname", passenger.getLastname());
+        generator.writeStringField("birthDate", passenger.getBirthDate());
+        this.writeDccStatus(generator, passenger.getDccStatus());
+        generator.writeStringField("serviceIdUsed", passenger.getServiceIdUsed());
+        generator.writeStringField("jti", passenger.getJti());
+        generator.writeEndObject();
+    }
+
+    private void writeDccStatus(final JsonGenerator generator, final DccStatusEntity dccStatus) throws IOException {
+        generator.writeFieldName("dccStatus");
+        if (dccStatus == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeStringField("issuer", dccStatus.getIssuer());
+        generator.writeNumberField("iat", dccStatus.getIat());
+        generator.writeStringField("sub", dccStatus.getSub());
+        generator.writeFieldName("results");
+        final List<DccStatusResultEntity> results = dccStatus.getResults();
+        if (results == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray();
+            for (final DccStatusResultEntity result : results) {
+                this.writeResult(generator, result);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeStringField("confirmation", dccStatus.getConfirmation());
+        generator.writeEndObject();
+    }
+
+    private void writeResult(final JsonGenerator generator, final DccStatusResultEntity result) throws IOException {
+        if (result == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeStringField("identifier", result.getIdentifier());
+        generator.writeStringField("result", result.getResult());
+        generator.writeStringField("type", result.getType());
+        generator.writeStringField("details", result.getDetails());
+        generator.writeEndObject();
+    }
+
+    private void writeFlightInfo(final JsonGenerator generator, final FlightInfoEntity flightInfo) throws IOException {
+        generator.writeFieldName("flightInfo");
+        if (flightInfo == null) {
+            generator.writeNull();
+            return;
+        }
+        // Jackson orders the properties renamed with @JsonProperty after the others
+        generator.writeStartObject();
+        generator.writeStringField("from", flightInfo.getFrom());
+        generator.writeStringField("to", flightInfo.getTo());
+        this.writeTime(generator, "time", flightInfo.getTime());
+        generator.writeNumberField("type", flightInfo.getType());
+        this.writeStrings(generator, "categories", flightInfo.getCategories());
+        this.writeStrings(generator, "conditionTypes", flightInfo.getConditionTypes());
+        generator.writeStringField("coa", flightInfo.getCountryOfArrival());
+        generator.writeStringField("cod", flightInfo.getCountryOfDeparture());
+        generator.writeStringField("roa", flightInfo.getRegionOfArrival());
+        generator.writeStringField("rod", flightInfo.getRegionOfDeparture());
+        this.writeTime(generator, "departureTime", flightInfo.getDepartureTime());
+        this.writeTime(generator, "arrivalTime", flightInfo.getArrivalTime());
+        generator.writeStringField("lang", flightInfo.getLanguage());
+        generator.writeEndObject();
+    }
+
+    private void writeStrings(final JsonGenerator generator, final String name, final List<String> values)
+            throws IOException {
+        generator.writeFieldName(name);
+        if (values == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (final String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
+
+    private void writeTime(final JsonGenerator generator, final String name, final OffsetDateTime time)
+            throws IOException {
+        generator.writeFieldName(name);
+        if (time == null) {
+            generator.writeNull();
+        } else {
+            this.timeWriter.writeValue(generator, time);
+        }
+    }
+}
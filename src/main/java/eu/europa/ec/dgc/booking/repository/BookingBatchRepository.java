@@ -0,0 +1,35 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.repository;
+
+import eu.europa.ec.dgc.booking.entity.BookingH2Entity;
+import java.util.Collection;
+
+public interface BookingBatchRepository {
+
+    /**
+     * Inserts the bookings in one JDBC batch. The session IDs must not exist yet.
+     *
+     * @param bookings {@link BookingH2Entity}
+     */
+    void insertAll(Collection<BookingH2Entity> bookings);
+}
@@ -0,0 +1,54 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.repository;
+
+import eu.europa.ec.dgc.booking.entity.BookingH2Entity;
+import java.sql.Timestamp;
+import java.util.Collection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RequiredArgsConstructor
+public class BookingBatchRepositoryImpl implements BookingBatchRepository {
+
+    private static final String INSERT = "INSERT INTO bookings "
+            + "(session_id, reference, booking, saved_at, pending_dcc, version, dcc_updated) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(final Collection<BookingH2Entity> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        this.jdbcTemplate.batchUpdate(INSERT, bookings, bookings.size(), (statement, booking) -> {
+            statement.setString(1, booking.getSessionId());
+            statement.setString(2, booking.getReference());
+            statement.setBytes(3, booking.getBookingData());
+            statement.setTimestamp(4, Timestamp.from(booking.getSavedAt()));
+            statement.setInt(5, booking.getPendingDcc());
+            statement.setLong(6, booking.getVersion());
+            statement.setBoolean(7, booking.isDccUpdated());
+        });
+    }
+}
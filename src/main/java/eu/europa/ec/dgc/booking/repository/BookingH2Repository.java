@@ -21,14 +21,99 @@
 package eu.europa.ec.dgc.booking.repository;
 
 import eu.europa.ec.dgc.booking.entity.BookingH2Entity;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface BookingH2Repository extends JpaRepository<BookingH2Entity, String> {
+public interface BookingH2Repository extends JpaRepository<BookingH2Entity, String>, BookingBatchRepository {
 
-    List<BookingH2Entity> findByReference(final String reference);
+    boolean existsByReference(final String reference);
 
-    void deleteByReference(final String reference);
+    @Query("select b.sessionId from BookingH2Entity b where b.reference = :reference")
+    List<String> findSessionIdsByReference(@Param("reference") final String reference);
+
+    @Query("select b.sessionId from BookingH2Entity b where b.reference = :reference")
+    List<String> findSessionIdsByReference(@Param("reference") final String reference, final Pageable pageable);
+
+    @Query("select b.sessionId from BookingH2Entity b where b.reference in :references")
+    List<String> findSessionIdsByReferences(@Param("references") final Collection<String> references);
+
+    @Query("select b.sessionId, b.reference from BookingH2Entity b where b.reference in :references")
+    List<Object[]> findSessionIdsAndReferences(@Param("references") final Collection<String> references);
+
+    @Query("select distinct b.reference from BookingH2Entity b where b.reference like concat(:prefix, '%')")
+    List<String> findReferencesStartingWith(@Param("prefix") final String prefix);
+
+    @Query("select b.sessionId from BookingH2Entity b where b.sessionId in :sessionIds "
+            + "and (b.reference is null or b.reference not like concat(:keptPrefix, '%'))")
+    List<String> findSessionIds(@Param("sessionIds") final Collection<String> sessionIds,
+            @Param("keptPrefix") final String keptPrefix);
+
+    @Query("select b.sessionId from BookingH2Entity b where b.savedAt < :savedBefore "
+            + "and (b.reference is null or b.reference not like concat(:keptPrefix, '%')) order by b.savedAt")
+    List<String> findSessionIdsSavedBefore(@Param("savedBefore") final Instant savedBefore,
+            @Param("keptPrefix") final String keptPrefix, final Pageable pageable);
+
+    @Modifying
+    @Query(value = "MERGE INTO bookings b USING (SELECT CAST(:sessionId AS VARCHAR(255)) session_id) s "
+            + "ON b.session_id = s.session_id "
+            + "WHEN MATCHED THEN UPDATE SET reference = :reference, booking = :booking, saved_at = :savedAt, "
+            + "pending_dcc = :pendingDcc, version = b.version + 1, dcc_updated = FALSE "
+            + "WHEN NOT MATCHED THEN INSERT (session_id, reference, booking, saved_at, pending_dcc, version, "
+            + "dcc_updated) VALUES (:sessionId, :reference, :booking, :savedAt, :pendingDcc, :initialVersion, FALSE)",
+            nativeQuery = true)
+    int upsert(@Param("sessionId") final String sessionId, @Param("reference") final String reference,
+            @Param("booking") final byte[] booking, @Param("savedAt") final Instant savedAt,
+            @Param("pendingDcc") final int pendingDcc, @Param("initialVersion") final long initialVersion);
+
+    @Modifying
+    @Query("update BookingH2Entity b set b.reference = :reference, b.bookingData = :booking, b.savedAt = :savedAt, "
+            + "b.pendingDcc = :pendingDcc, b.version = b.version + 1, b.dccUpdated = false "
+            + "where b.sessionId = :sessionId and b.version = :version")
+    int compareAndSet(@Param("sessionId") final String sessionId, @Param("version") final long version,
+            @Param("reference") final String reference, @Param("booking") final byte[] booking,
+            @Param("savedAt") final Instant savedAt, @Param("pendingDcc") final int pendingDcc);
+
+    @Modifying
+    @Query("update BookingH2Entity b set b.bookingData = :booking "
+            + "where b.sessionId = :sessionId and b.version = :version")
+    int updateEncoding(@Param("sessionId") final String sessionId, @Param("version") final long version,
+            @Param("booking") final byte[] booking);
+
+    @Modifying
+    @Query("update BookingH2Entity b set b.version = b.version + 1, b.dccUpdated = true "
+            + "where b.sessionId = :sessionId")
+    int markDccUpdated(@Param("sessionId") final String sessionId);
+
+    @Modifying
+    @Query("update BookingH2Entity b set b.pendingDcc = b.pendingDcc - 1 "
+            + "where b.sessionId = :sessionId and b.pendingDcc > 0")
+    int decrementPendingDcc(@Param("sessionId") final String sessionId);
+
+    @Query("select b.version from BookingH2Entity b where b.sessionId = :sessionId")
+    Optional<Long> findVersionBySessionId(@Param("sessionId") final String sessionId);
+
+    @Query("select b.pendingDcc from BookingH2Entity b where b.sessionId = :sessionId")
+    Optional<Integer> findPendingDccBySessionId(@Param("sessionId") final String sessionId);
+
+    @Modifying
+    @Query("delete from BookingH2Entity b where b.reference = :reference")
+    int deleteByReference(@Param("reference") final String reference);
+
+    @Modifying
+    @Query("delete from BookingH2Entity b where b.sessionId = :sessionId and b.reference = :reference")
+    int deleteBySessionIdAndReference(@Param("sessionId") final String sessionId,
+            @Param("reference") final String reference);
+
+    @Modifying
+    @Query("delete from BookingH2Entity b where b.sessionId in :sessionIds")
+    int deleteBySessionIds(@Param("sessionIds") final Collection<String> sessionIds);
 }
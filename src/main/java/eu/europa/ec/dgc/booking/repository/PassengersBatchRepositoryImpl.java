@@ -0,0 +1,47 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.repository;
+
+import eu.europa.ec.dgc.booking.entity.PassengersH2Entity;
+import java.util.Collection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RequiredArgsConstructor
+public class PassengersBatchRepositoryImpl implements PassengersBatchRepository {
+
+    private static final String UPSERT = "MERGE INTO passengers (passenger_id, session_id, dcc_status) "
+            + "KEY (session_id, passenger_id) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void upsertAll(final Collection<PassengersH2Entity> passengers) {
+        if (passengers.isEmpty()) {
+            return;
+        }
+        this.jdbcTemplate.batchUpdate(UPSERT, passengers, passengers.size(), (statement, passenger) -> {
+            statement.setString(1, passenger.getId().toString());
+            statement.setString(2, passenger.getSessionId());
+            statement.setBytes(3, passenger.getDccStatusData());
+        });
+    }
+}
@@ -21,14 +21,39 @@
 package eu.europa.ec.dgc.booking.repository;
 
 import eu.europa.ec.dgc.booking.entity.PassengersH2Entity;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface PassengersH2Repository extends JpaRepository<PassengersH2Entity, UUID> {
+public interface PassengersH2Repository extends JpaRepository<PassengersH2Entity, PassengersH2Entity.Key>,
+        PassengersBatchRepository {
 
-    void deleteAllBySessionId(final String sessionId);
+    List<PassengersH2Entity> findBySessionIdAndDccStatusDataIsNotNull(final String sessionId);
 
-    boolean existsBySessionId(final String sessionId);
+    boolean existsByIdAndSessionIdAndDccStatusDataIsNull(final UUID passengerId, final String sessionId);
+
+    @Modifying
+    @Query("update PassengersH2Entity p set p.dccStatusData = :dccStatus "
+            + "where p.sessionId = :sessionId and p.id = :passengerId")
+    int updateDccStatus(@Param("sessionId") final String sessionId, @Param("passengerId") final UUID passengerId,
+            @Param("dccStatus") final byte[] dccStatus);
+
+    @Modifying
+    @Query("delete from PassengersH2Entity p where p.sessionId = :sessionId")
+    int deleteAllBySessionId(@Param("sessionId") final String sessionId);
+
+    @Modifying
+    @Query("delete from PassengersH2Entity p where p.sessionId in :sessionIds")
+    int deleteAllBySessionIds(@Param("sessionIds") final Collection<String> sessionIds);
+
+    @Modifying
+    @Query("delete from PassengersH2Entity p where p.sessionId in "
+            + "(select b.sessionId from BookingH2Entity b where b.reference = :reference)")
+    int deleteAllByReference(@Param("reference") final String reference);
 }
@@ -0,0 +1,116 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded read-through cache of deserialized bookings by session ID.
+ * The cache keeps private snapshots, callers always receive a copy they are free to change.
+ */
+@Slf4j
+@Component
+public class BookingCache {
+
+    private static final String CACHE_NAME = "bookings";
+
+    private final Cache<String, BookingEntity> cache;
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize maximum number of cached bookings
+     * @param ttlSeconds seconds after which a cached booking is evicted
+     * @param meterRegistry registry for hit, miss and eviction counters
+     */
+    public BookingCache(
+            @Value("${booking.cache.max-size:10000}") final long maxSize,
+            @Value("${booking.cache.ttl-seconds:600}") final long ttlSeconds,
+            final MeterRegistry meterRegistry) {
+        log.info("Configuration of booking cache with max size '{}' and TTL '{}s'", maxSize, ttlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns a copy of the cached booking, the loader is called on a cache miss. The loader must return a booking
+     * that is not referenced elsewhere, it is kept as snapshot.
+     *
+     * @param sessionId Session ID
+     * @param loader loads the booking if it is not cached
+     * @return {@link BookingEntity}
+     */
+    public BookingEntity get(final String sessionId, final Function<String, BookingEntity> loader) {
+        return this.read(sessionId, loader, BookingEntity::copy);
+    }
+
+    /**
+     * Applies the reader to the cached snapshot without copying the booking, the loader is called on a cache miss.
+     * The reader must not change the booking, it may only keep a reference to it if it never changes it either.
+     *
+     * @param sessionId Session ID
+     * @param loader loads the booking if it is not cached
+     * @param reader reads the result from the booking
+     * @param <T> result type
+     * @return result of the reader
+     */
+    public <T> T read(final String sessionId, final Function<String, BookingEntity> loader,
+            final Function<BookingEntity, T> reader) {
+        return reader.apply(this.cache.get(sessionId, loader));
+    }
+
+    /**
+     * Applies the reader to the cached snapshot without copying the booking, if the booking is cached. The reader
+     * must not change the booking or keep a reference to it.
+     *
+     * @param sessionId Session ID
+     * @param reader reads the result from the booking
+     * @param <T> result type
+     * @return result of the reader, empty if the booking is not cached
+     */
+    public <T> Optional<T> readIfPresent(final String sessionId, final Function<BookingEntity, T> reader) {
+        return Optional.ofNullable(this.cache.getIfPresent(sessionId)).map(reader);
+    }
+
+    /**
+     * Removes the booking from the cache. Writers call this before and after the write, so that a concurrent read
+     * of the old state cannot survive the write.
+     *
+     * @param sessionId Session ID
+     */
+    public void invalidate(final String sessionId) {
+        this.cache.invalidate(sessionId);
+    }
+}
@@ -0,0 +1,370 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import eu.europa.ec.dgc.booking.dto.BookingImportResult;
+import eu.europa.ec.dgc.booking.dto.BookingReplaceRequest;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.mapper.BookingRequestMapper;
+import eu.europa.ec.dgc.booking.utils.IdGenerator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import javax.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bulk import of bookings from NDJSON, one {@link BookingReplaceRequest} per line. Lines are read in batches, every
+ * batch is parsed, validated and converted on the import threads while the request thread writes the previous
+ * batches in input order, one transaction per batch. At most "booking.import.max-in-flight" batches are read ahead,
+ * so the memory used does not depend on the size of the input. The result of every line is written as NDJSON as
+ * soon as its batch is written.
+ */
+@Slf4j
+@Service
+public class BookingImportService {
+
+    private final int batchSize;
+
+    private final int maxInFlight;
+
+    private final int maxLineLength;
+
+    private final BookingPersistenceService persistence;
+
+    private final BookingRequestMapper requestMapper;
+
+    private final IdGenerator idGenerator;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectReader requestReader;
+
+    private final ExecutorService executor;
+
+    /**
+     * Constructor.
+     *
+     * @param batchSize lines per batch and transaction
+     * @param parallelism number of import threads, defaults to the number of processors
+     * @param maxInFlight maximum number of batches read ahead of the written batch
+     * @param maxLineLength maximum number of characters per line, longer lines are skipped as invalid
+     * @param persistence writes the batches
+     * @param requestMapper converts the lines
+     * @param idGenerator creates the session IDs of the imported bookings
+     * @param validator validates the lines
+     * @param objectMapper reads the lines and writes the results
+     */
+    public BookingImportService(
+            @Value("${booking.import.batch-size:500}") final int batchSize,
+            @Value("${booking.import.parallelism:0}") final int parallelism,
+            @Value("${booking.import.max-in-flight:8}") final int maxInFlight,
+            @Value("${booking.import.max-line-length:1048576}") final int maxLineLength,
+            final BookingPersistenceService persistence,
+            final BookingRequestMapper requestMapper,
+            final IdGenerator idGenerator,
+            final Validator validator,
+            final ObjectMapper objectMapper) {
+        final int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        log.info("Configuration of booking import with batch size '{}', '{}' threads and '{}' batches in flight",
+                batchSize, threads, maxInFlight);
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.maxLineLength = maxLineLength;
+        this.persistence = persistence;
+        this.requestMapper = requestMapper;
+        this.idGenerator = idGenerator;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(BookingReplaceRequest.class)
+                .with(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "booking-import-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Imports the bookings of the NDJSON input and writes one {@link BookingImportResult} per non-blank line to the
+     * output. Every booking is written to a new session, existing bookings with the same reference are deleted as
+     * with "/booking/replace". Invalid lines are reported and skipped, the other lines of their batch are imported.
+     * The new sessions belong to no HTTP session, imported bookings expire with the TTL of the
+     * {@link BookingSweeper} unless their reference is a preset reference.
+     *
+     * @param input NDJSON with one {@link BookingReplaceRequest} per line, UTF-8 encoded
+     * @param output receives the NDJSON results, flushed after every batch
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    public void importBookings(final InputStream input, final OutputStream output) throws IOException {
+        final LineReader reader = new LineReader(
+                new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), this.maxLineLength);
+        final Deque<Future<List<Line>>> window = new ArrayDeque<>();
+        int imported = 0;
+        try {
+            List<Line> batch = new ArrayList<>(this.batchSize);
+            while (reader.next()) {
+                if (reader.isBlank()) {
+                    continue;
+                }
+                batch.add(new Line(reader.getNumber(), reader.isTooLong() ? null : reader.getText()));
+                if (batch.size() == this.batchSize) {
+                    this.submit(window, batch);
+                    batch = new ArrayList<>(this.batchSize);
+                }
+                while (window.size() > this.maxInFlight) {
+                    imported += this.write(await(window.removeFirst()), output);
+                }
+            }
+            if (!batch.isEmpty()) {
+                this.submit(window, batch);
+            }
+            while (!window.isEmpty()) {
+                imported += this.write(await(window.removeFirst()), output);
+            }
+        } finally {
+            window.forEach(future -> future.cancel(true));
+        }
+        log.info("Imported '{}' bookings from '{}' lines", imported, reader.getNumber());
+    }
+
+    /**
+     * Stops the import threads.
+     */
+    @PreDestroy
+    void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    private void submit(final Deque<Future<List<Line>>> window, final List<Line> batch) {
+        window.addLast(this.executor.submit(() -> {
+            batch.forEach(this::convert);
+            return batch;
+        }));
+    }
+
+    /**
+     * Parses, validates and converts the line, errors are kept with the line.
+     */
+    private void convert(final Line line) {
+        if (line.text == null) {
+            line.errors = List.of(String.format("Line is longer than %d characters", this.maxLineLength));
+            return;
+        }
+        try {
+            final BookingReplaceRequest request = this.requestReader.readValue(line.text);
+            if (request == null) {
+                line.errors = List.of("Line is no booking");
+                return;
+            }
+            line.reference = request.getReference();
+            line.errors = this.validator.validate(request).stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.toList());
+            if (line.errors.isEmpty()) {
+                line.errors = null;
+                line.booking = this.requestMapper.toBookingEntity(request);
+            }
+        } catch (JsonProcessingException e) {
+            line.errors = List.of(e.getOriginalMessage());
+        } catch (RuntimeException e) {
+            line.errors = List.of(String.valueOf(e.getMessage()));
+        } finally {
+            line.text = null;
+        }
+    }
+
+    /**
+     * Writes the converted bookings of the batch in one transaction and the results of all lines to the output.
+     * Within a batch only the last line of a reference is written, as if the lines were replaced one after another.
+     */
+    private int write(final List<Line> batch, final OutputStream output) throws IOException {
+        final Map<String, Line> lastByReference = new HashMap<>();
+        batch.stream()
+                .filter(line -> line.booking != null)
+                .forEach(line -> lastByReference.put(line.reference, line));
+        final Map<String, BookingEntity> bookings = new LinkedHashMap<>();
+        batch.stream()
+                .filter(line -> line.booking != null && lastByReference.get(line.reference) == line)
+                .forEach(line -> bookings.put(this.idGenerator.nextId().toString(), line.booking));
+
+        String failure = null;
+        try {
+            this.persistence.replaceAll(bookings);
+        } catch (RuntimeException e) {
+            log.warn("Import of lines '{}' to '{}' failed: {}", batch.get(0).number,
+                    batch.get(batch.size() - 1).number, e.getMessage());
+            failure = String.valueOf(e.getMessage());
+        }
+
+        int imported = 0;
+        for (Line line : batch) {
+            final BookingImportResult result;
+            if (line.errors != null) {
+                result = new BookingImportResult(line.number, BookingImportResult.Status.INVALID, line.reference,
+                        line.errors);
+            } else if (failure != null) {
+                result = new BookingImportResult(line.number, BookingImportResult.Status.FAILED, line.reference,
+                        List.of(failure));
+            } else {
+                result = new BookingImportResult(line.number, BookingImportResult.Status.IMPORTED, line.reference,
+                        null);
+                imported++;
+            }
+            output.write(this.objectMapper.writeValueAsBytes(result));
+            output.write('\n');
+        }
+        output.flush();
+        return imported;
+    }
+
+    private static List<Line> await(final Future<List<Line>> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Conversion of an import batch failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an import batch", e);
+        }
+    }
+
+    /**
+     * One line of the input, converted by an import thread and written by the request thread.
+     */
+    private static final class Line {
+
+        private final long number;
+
+        // null after conversion and for lines that are too long
+        private String text;
+
+        private String reference;
+
+        private BookingEntity booking;
+
+        private List<String> errors;
+
+        private Line(final long number, final String text) {
+            this.number = number;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Reads lines up to a maximum length, the rest of a longer line is skipped without keeping it.
+     */
+    private static final class LineReader {
+
+        private final Reader reader;
+
+        private final int maxLength;
+
+        private final StringBuilder text = new StringBuilder();
+
+        private long number;
+
+        private boolean tooLong;
+
+        private LineReader(final Reader reader, final int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * Reads the next line, false at the end of the input.
+         */
+        private boolean next() throws IOException {
+            this.text.setLength(0);
+            this.tooLong = false;
+            int c = this.reader.read();
+            if (c == -1) {
+                return false;
+            }
+            this.number++;
+            while (c != -1 && c != '\n') {
+                if (this.text.length() < this.maxLength) {
+                    this.text.append((char) c);
+                } else if (c != '\r') {
+                    this.tooLong = true;
+                }
+                c = this.reader.read();
+            }
+            if (this.text.length() > 0 && this.text.charAt(this.text.length() - 1) == '\r') {
+                this.text.setLength(this.text.length() - 1);
+            }
+            return true;
+        }
+
+        private long getNumber() {
+            return this.number;
+        }
+
+        private String getText() {
+            return this.text.toString();
+        }
+
+        private boolean isTooLong() {
+            return this.tooLong;
+        }
+
+        private boolean isBlank() {
+            if (this.tooLong) {
+                return false;
+            }
+            for (int i = 0; i < this.text.length(); i++) {
+                if (!Character.isWhitespace(this.text.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Runs all mutations of a booking in order on one lane. The session ID is hashed onto a fixed number of
+ * single-threaded lanes, mutations of different bookings run in parallel on different lanes. Reads do not go
+ * through the lanes.
+ */
+@Slf4j
+@Component
+public class BookingMutationExecutor {
+
+    private static final String METRIC_NAME = "booking.mutation.lane";
+
+    private final ExecutorService[] lanes;
+
+    private final ThreadLocal<Integer> currentLane = new ThreadLocal<>();
+
+    /**
+     * Constructor.
+     *
+     * @param laneCount number of lanes, defaults to the number of processors
+     * @param queueCapacity maximum number of waiting mutations per lane
+     * @param meterRegistry registry for queue depth and utilization of the lanes
+     */
+    public BookingMutationExecutor(
+            @Value("${booking.mutation.lanes:0}") final int laneCount,
+            @Value("${booking.mutation.queue-capacity:1000}") final int queueCapacity,
+            final MeterRegistry meterRegistry) {
+        final int lanes = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        log.info("Configuration of booking mutation executor with '{}' lanes and queue capacity '{}'",
+                lanes, queueCapacity);
+        this.lanes = new ExecutorService[lanes];
+        for (int i = 0; i < lanes; i++) {
+            final int lane = i;
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                        final Thread thread = new Thread(() -> {
+                            this.currentLane.set(lane);
+                            runnable.run();
+                        }, "booking-lane-" + lane);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            // executor.queued is the queue depth, the rate of executor.seconds.sum the utilization of the lane
+            this.lanes[i] = ExecutorServiceMetrics.monitor(meterRegistry, executor, METRIC_NAME,
+                    Tags.of("lane", String.valueOf(lane)));
+        }
+    }
+
+    /**
+     * Runs the mutation on the lane of the session and waits for its result. Exceptions of the mutation are
+     * rethrown to the caller. A mutation that is already running on the lane of the session runs directly. The
+     * request attributes of the caller are available to the mutation.
+     *
+     * @param sessionId Session ID
+     * @param mutation mutation of the booking of the session
+     * @param <T> result type
+     * @return result of the mutation
+     */
+    public <T> T execute(final String sessionId, final Supplier<T> mutation) {
+        final int lane = (sessionId.hashCode() & Integer.MAX_VALUE) % this.lanes.length;
+        if (Integer.valueOf(lane).equals(this.currentLane.get())) {
+            return mutation.get();
+        }
+
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        final Future<T> future;
+        try {
+            future = this.lanes[lane].submit(() -> {
+                RequestContextHolder.setRequestAttributes(attributes);
+                try {
+                    return mutation.get();
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many pending booking updates", e);
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a booking update", e);
+        }
+    }
+
+    /**
+     * Stops the lanes after the queued mutations are done.
+     */
+    @PreDestroy
+    void shutdown() {
+        for (ExecutorService lane : this.lanes) {
+            lane.shutdown();
+        }
+    }
+}
@@ -20,30 +20,45 @@
 
 package eu.europa.ec.dgc.booking.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.europa.ec.dgc.booking.entity.BookingEntity;
-import eu.europa.ec.dgc.booking.entity.BookingH2Entity;
-import eu.europa.ec.dgc.booking.entity.PassengersH2Entity;
+import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
+import eu.europa.ec.dgc.booking.exception.BookingConflictException;
 import eu.europa.ec.dgc.booking.exception.BookingNotFoundException;
-import eu.europa.ec.dgc.booking.repository.BookingH2Repository;
-import eu.europa.ec.dgc.booking.repository.PassengersH2Repository;
+import eu.europa.ec.dgc.booking.store.BookingStore;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class BookingPersistenceService {
 
-    private final BookingH2Repository bookingRepository;
+    // Number of attempts of a booking update before the conflict is reported to the client
+    @Value("${booking.update.max-attempts:5}")
+    private Integer maxUpdateAttempts;
 
-    private final PassengersH2Repository passengersRepository;
+    private final BookingStore store;
 
-    private final ObjectMapper mapper;
+    private final BookingCache cache;
+
+    private final BookingUnitOfWork unitOfWork;
+
+    private final PresetBookingCache presets;
+
+    private final RenderedResponseCache renderedResponses;
+
+    private final BookingMutationExecutor mutations;
 
     /**
      * Returns booking by the session ID.
@@ -52,9 +67,45 @@ public class BookingPersistenceService {
      * @return {@link BookingEntity}
      */
     public BookingEntity getBySessionId(final String sessionId) {
-        final BookingH2Entity entity = this.bookingRepository.findById(sessionId)
+        return this.unitOfWork.getBooking(sessionId).orElseGet(() -> this.cache.read(sessionId,
+                id -> this.store.findBySessionId(id).orElseThrow(BookingNotFoundException::new),
+                snapshot -> {
+                    // the unit of work shares the snapshot of the cache, only the caller gets a copy
+                    this.unitOfWork.putSnapshot(sessionId, snapshot);
+                    return snapshot.copy();
+                }));
+    }
+
+    /**
+     * Returns the booking of the session with only the passenger with the ID. A booking that is already loaded is not
+     * copied as a whole, otherwise only this passenger is decoded from the store instead of loading the booking.
+     * 
+     * @param sessionId Session ID
+     * @param passengerId Passenger ID
+     * @return {@link BookingEntity}
+     */
+    public BookingEntity getWithPassengerBySessionId(final String sessionId, final UUID passengerId) {
+        final Function<BookingEntity, Optional<BookingEntity>> reader =
+                booking -> booking.copyWithPassenger(passengerId);
+        return this.unitOfWork.readBooking(sessionId, reader)
+                .or(() -> this.cache.readIfPresent(sessionId, reader))
+                .orElseGet(() -> this.store.findWithPassengerBySessionId(sessionId, passengerId))
+                .orElseThrow(() -> new BookingNotFoundException(
+                        String.format("Booking not found by passenger ID '%s'", passengerId)));
+    }
+
+    /**
+     * Returns the booking of the session with only its first passenger. A booking that is already loaded is not
+     * copied as a whole, otherwise only the first passenger is decoded from the store instead of loading the booking.
+     * 
+     * @param sessionId Session ID
+     * @return {@link BookingEntity}
+     */
+    public BookingEntity getWithFirstPassengerBySessionId(final String sessionId) {
+        return this.unitOfWork.readBooking(sessionId, BookingEntity::copyWithFirstPassenger)
+                .or(() -> this.cache.readIfPresent(sessionId, BookingEntity::copyWithFirstPassenger))
+                .or(() -> this.store.findWithFirstPassengerBySessionId(sessionId))
                 .orElseThrow(BookingNotFoundException::new);
-        return this.fromJson(entity.getBookingJson());
     }
 
     /**
@@ -79,15 +130,40 @@ public class BookingPersistenceService {
     }
 
     /**
-     * Returns booking by reference.
+     * Returns booking by reference. Preset bookings are served from the {@link PresetBookingCache}, as shared snapshot
+     * that must not be changed.
      * 
      * @param reference {@link String}
      * @return {@link BookingEntity}
      */
     public Optional<BookingEntity> getByReference(final String reference) {
-        return this.bookingRepository.findByReference(reference).stream()
-                .findFirst()
-                .map(booking -> this.fromJson(booking.getBookingJson()));
+        if (PresetBookingCache.isPreset(reference)) {
+            return this.presets.get(reference);
+        }
+        return this.getSessionIdByReference(reference).map(this::getBySessionId);
+    }
+
+    /**
+     * Checks whether a booking with the reference exists, without loading the booking.
+     * 
+     * @param reference {@link String}
+     * @return {@link Boolean}
+     */
+    public boolean existsByReference(final String reference) {
+        if (PresetBookingCache.isPreset(reference)) {
+            return this.presets.exists(reference);
+        }
+        return this.store.existsByReference(reference);
+    }
+
+    /**
+     * Returns the session ID of the first booking with the reference, without loading the booking.
+     * 
+     * @param reference {@link String}
+     * @return Session ID
+     */
+    public Optional<String> getSessionIdByReference(final String reference) {
+        return this.store.findSessionIdByReference(reference);
     }
 
     /**
@@ -107,62 +183,171 @@ public class BookingPersistenceService {
      * @return Session ID
      */
     public String getSessionIdByPassengerId(final UUID passengerId) {
-        final PassengersH2Entity entity = this.passengersRepository.findById(passengerId)
-                .orElseThrow(() -> new BookingNotFoundException(
-                        String.format("Booking not found by passenger ID '%s'", passengerId)));
-        return entity.getSessionId();
+        return this.unitOfWork.getSessionId(passengerId).orElseGet(() -> {
+            final String sessionId = this.store.findSessionIdByPassengerId(passengerId)
+                    .orElseThrow(() -> new BookingNotFoundException(
+                            String.format("Booking not found by passenger ID '%s'", passengerId)));
+            this.unitOfWork.putSessionId(passengerId, sessionId);
+            return sessionId;
+        });
+    }
+
+    /**
+     * Returns the version of the booking without loading the booking.
+     * 
+     * @param sessionId Session ID
+     * @return version
+     */
+    public long getVersionBySessionId(final String sessionId) {
+        return this.unitOfWork.getBooking(sessionId)
+                .map(BookingEntity::getVersion)
+                .or(() -> this.store.findVersion(sessionId))
+                .orElseThrow(BookingNotFoundException::new);
     }
 
     /**
-     * Saves booking , if entries already exist, they will be deleted.
+     * Returns the number of passengers without DCC status, maintained on every write of the booking.
+     * 
+     * @param sessionId Session ID
+     * @return number of passengers without DCC status
+     */
+    public int countPendingDcc(final String sessionId) {
+        return this.store.countPendingDcc(sessionId).orElseThrow(BookingNotFoundException::new);
+    }
+
+    /**
+     * Saves booking, if entries already exist, they will be replaced.
      * 
      * @param sessionId Session ID
      * @param booking Booking
      */
     public void save(final String sessionId, final BookingEntity booking) {
-        this.cleanBySessionId(sessionId);
+        this.evict(sessionId);
+        this.store.save(sessionId, booking);
+        this.evict(sessionId);
+        this.presets.put(sessionId, booking);
+    }
+
+    /**
+     * Replaces the bookings of many sessions at once, see {@link BookingStore#replaceAll(Map)}. The existing bookings
+     * with the references are deleted on the lanes of their sessions first, see
+     * {@link #deleteByReferences(Collection, Collection)}, so the store only deletes bookings written concurrently.
+     * Must not be called from a lane.
+     * 
+     * @param bookings {@link BookingEntity} by Session ID, with distinct references
+     */
+    public void replaceAll(final Map<String, BookingEntity> bookings) {
+        this.deleteByReferences(bookings.values().stream()
+                .map(BookingEntity::getReference)
+                .collect(Collectors.toList()), bookings.keySet());
+        bookings.keySet().forEach(this::evict);
+        this.store.replaceAll(bookings).forEach(this::evict);
+        bookings.keySet().forEach(this::evict);
+        bookings.forEach(this.presets::put);
+    }
+
+    /**
+     * Applies the mutation to the current booking of the session and saves it, if the booking was not changed in the
+     * meantime. On a conflict the booking is read again and the mutation is applied again, so the mutation must only
+     * depend on the booking it receives.
+     * 
+     * @param sessionId Session ID
+     * @param mutation changes the booking
+     * @return the saved {@link BookingEntity}
+     * @throws BookingConflictException if the booking was changed concurrently in every attempt
+     */
+    public BookingEntity update(final String sessionId, final Consumer<BookingEntity> mutation) {
+        for (int attempt = 1; attempt <= this.maxUpdateAttempts; attempt++) {
+            final BookingEntity booking = this.getBySessionId(sessionId);
+            mutation.accept(booking);
+            this.evict(sessionId);
+            final boolean saved = this.store.compareAndSave(sessionId, booking);
+            this.evict(sessionId);
+            if (saved) {
+                this.unitOfWork.putBooking(sessionId, booking);
+                return booking;
+            }
+            log.debug("Booking of session '{}' was changed concurrently, attempt '{}'", sessionId, attempt);
+        }
+        throw new BookingConflictException(
+                String.format("Booking of session '%s' was changed concurrently", sessionId));
+    }
 
-        final BookingH2Entity entity = new BookingH2Entity();
-        entity.setSessionId(sessionId);
-        entity.setReference(booking.getReference());
-        entity.setBookingJson(this.toJson(booking));
-        this.bookingRepository.save(entity);
+    /**
+     * Updates the DCC status of one passenger without rewriting the booking.
+     * 
+     * @param passengerId Passenger ID as string
+     * @param dccStatus {@link DccStatusEntity}
+     * @return Number of changed passengers
+     */
+    public int updateDccStatus(final String passengerId, final DccStatusEntity dccStatus) {
+        final UUID id = UUID.fromString(passengerId);
+        final String sessionId = this.getSessionIdByPassengerId(id);
+        this.evict(sessionId);
+        final int count = this.store.updateDccStatus(id, dccStatus);
+        this.evict(sessionId);
+        return count;
+    }
 
-        // save passengers IDs
-        booking.getPassengers().stream().map(passenger -> {
-            final PassengersH2Entity passEntity = new PassengersH2Entity();
-            passEntity.setId(passenger.getId());
-            passEntity.setSessionId(sessionId);
-            return passEntity;
-        }).forEach(passengersRepository::save);
+    /**
+     * Deletes the bookings with one of the references, except the bookings of the kept sessions. Every booking is
+     * deleted on the lane of its session, so it is never deleted while a mutation of its session is running. Must not
+     * be called from a lane, it waits for the lanes of the other sessions.
+     * 
+     * @param references booking references
+     * @param keptSessionIds Session IDs whose bookings are kept
+     */
+    public void deleteByReferences(final Collection<String> references, final Collection<String> keptSessionIds) {
+        this.store.findSessionIdsByReferences(references).forEach((sessionId, reference) -> {
+            if (!keptSessionIds.contains(sessionId)) {
+                this.mutations.execute(sessionId, () -> {
+                    if (this.store.deleteByReference(reference, sessionId)) {
+                        this.evict(sessionId);
+                    }
+                    return null;
+                });
+            }
+        });
     }
 
-    public void deleteByReference(final String reference) {
-        this.bookingRepository.deleteByReference(reference);
+    /**
+     * Deletes the bookings of the sessions and their passenger IDs.
+     * 
+     * @param sessionIds Session IDs
+     * @return Number of deleted bookings
+     */
+    public int deleteBySessionIds(final Collection<String> sessionIds) {
+        final List<String> deleted = this.store.deleteBySessionIds(sessionIds);
+        deleted.forEach(this::evict);
+        return deleted.size();
     }
 
-    private void cleanBySessionId(final String sessionId) {
-        if (this.bookingRepository.existsById(sessionId)) {
-            this.bookingRepository.deleteById(sessionId);
-        }
-        if (this.passengersRepository.existsBySessionId(sessionId)) {
-            this.passengersRepository.deleteAllBySessionId(sessionId);
-        }
+    /**
+     * Deletes at most limit bookings that were last saved before the given instant.
+     * 
+     * @param savedBefore bookings saved before this instant are expired
+     * @param limit maximum number of bookings to delete
+     * @return Number of deleted bookings
+     */
+    public int deleteExpired(final Instant savedBefore, final int limit) {
+        final List<String> deleted = this.store.deleteExpired(savedBefore, limit);
+        deleted.forEach(this::evict);
+        return deleted.size();
     }
 
-    private BookingEntity fromJson(final String data) {
-        try {
-            return this.mapper.readValue(data, BookingEntity.class);
-        } catch (JsonProcessingException e) {
-            throw new IllegalArgumentException(e);
-        }
+    /**
+     * Returns the number of stored bookings.
+     * 
+     * @return number of bookings
+     */
+    public long count() {
+        return this.store.count();
     }
 
-    private String toJson(final BookingEntity data) {
-        try {
-            return this.mapper.writeValueAsString(data);
-        } catch (JsonProcessingException e) {
-            throw new IllegalArgumentException(e);
-        }
+    private void evict(final String sessionId) {
+        this.unitOfWork.evict(sessionId);
+        this.cache.invalidate(sessionId);
+        this.presets.evictSession(sessionId);
+        this.renderedResponses.invalidate(sessionId);
     }
 }
@@ -0,0 +1,171 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.europa.ec.dgc.booking.dto.RenderedResponse;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.mapper.BookingResponseMapper;
+import eu.europa.ec.dgc.booking.mapper.BookingResponseWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Renders the read responses of a booking to JSON once per booking version and serves them from the
+ * {@link RenderedResponseCache}. The JSON is written with the same {@link ObjectMapper} as all other responses, booking
+ * responses of the endpoints in "booking.response-writer.streaming" with the {@link BookingResponseWriter}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingResponseRenderer {
+
+    public static final String ENDPOINT_BOOKING = "booking";
+
+    public static final String ENDPOINT_REPLACE = "replace";
+
+    public static final String ENDPOINT_TOKEN_CONTENT = "tokencontent";
+
+    private static final String BOARDING_PASS = "boardingpass";
+
+    private static final String TOKEN_CONTENT = "tokencontent:";
+
+    // Store a gzip compressed copy of every rendered response
+    @Value("${booking.response-cache.gzip:true}")
+    private Boolean gzip;
+
+    // Endpoints whose booking response is written straight from the entity by the BookingResponseWriter
+    @Value("${booking.response-writer.streaming:booking,replace,tokencontent}")
+    private Set<String> streamingEndpoints;
+
+    private final BookingService bookingService;
+
+    private final BookingPersistenceService persistence;
+
+    private final RenderedResponseCache cache;
+
+    private final BookingResponseMapper responseMapper;
+
+    private final BookingResponseWriter responseWriter;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Returns the rendered boarding pass of the passenger.
+     *
+     * @param passengerId Passenger ID
+     * @param version current version of the booking
+     * @return {@link RenderedResponse}
+     */
+    public RenderedResponse boardingPass(final String passengerId, final long version) {
+        final String sessionId = this.persistence.getSessionIdByPassengerId(passengerId);
+        return this.cache.get(sessionId, version, BOARDING_PASS).orElseGet(() -> {
+            // the boarding pass reads only the flight and the first passenger
+            final BookingEntity booking = this.persistence.getWithFirstPassengerBySessionId(sessionId);
+            final RenderedResponse response = this.render(booking.getVersion(),
+                    this.toJson(this.responseMapper.toBoardingPass(booking)));
+            this.cache.put(sessionId, BOARDING_PASS, response);
+            return response;
+        });
+    }
+
+    /**
+     * Returns the rendered token content of the passenger.
+     *
+     * @param passengerId Passenger ID
+     * @param version current version of the booking
+     * @return {@link RenderedResponse}
+     */
+    public RenderedResponse tokenContent(final String passengerId, final long version) {
+        final String sessionId = this.persistence.getSessionIdByPassengerId(passengerId);
+        return this.cache.get(sessionId, version, TOKEN_CONTENT + passengerId)
+                .orElseGet(() -> this.renderTokenContent(sessionId, passengerId, null));
+    }
+
+    /**
+     * Stores the service ID for the passenger and returns the rendered token content of the changed booking, see
+     * {@link BookingService#getOnlyPassengerId(String, String)}.
+     *
+     * @param passengerId Passenger ID
+     * @param serviceId Service ID
+     * @return {@link RenderedResponse}
+     */
+    public RenderedResponse tokenContent(final String passengerId, final String serviceId) {
+        return this.renderTokenContent(this.persistence.getSessionIdByPassengerId(passengerId), passengerId, serviceId);
+    }
+
+    /**
+     * Renders the booking response of the endpoint, uncompressed and not cached.
+     *
+     * @param endpoint {@link #ENDPOINT_BOOKING} or {@link #ENDPOINT_REPLACE}
+     * @param booking {@link BookingEntity}
+     * @return {@link RenderedResponse}
+     */
+    public RenderedResponse booking(final String endpoint, final BookingEntity booking) {
+        return new RenderedResponse(booking.getVersion(), this.bookingResponse(endpoint, booking), null);
+    }
+
+    private RenderedResponse renderTokenContent(final String sessionId, final String passengerId,
+            final String serviceId) {
+        final BookingEntity booking = this.bookingService.getOnlyPassengerId(passengerId, serviceId);
+        final RenderedResponse response = this.render(booking.getVersion(),
+                this.bookingResponse(ENDPOINT_TOKEN_CONTENT, booking));
+        this.cache.put(sessionId, TOKEN_CONTENT + passengerId, response);
+        return response;
+    }
+
+    private byte[] bookingResponse(final String endpoint, final BookingEntity booking) {
+        if (this.streamingEndpoints.contains(endpoint)) {
+            return this.responseWriter.writeAsBytes(booking);
+        }
+        return this.toJson(this.responseMapper.toBookingResponse(booking));
+    }
+
+    private RenderedResponse render(final long version, final byte[] json) {
+        return new RenderedResponse(version, json, this.gzip ? compress(json) : null);
+    }
+
+    private byte[] toJson(final Object body) {
+        try {
+            return this.objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response could not be rendered", e);
+        }
+    }
+
+    private static byte[] compress(final byte[] data) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 32);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
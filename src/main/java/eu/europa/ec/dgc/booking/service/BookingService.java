@@ -29,15 +29,15 @@ import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
 import eu.europa.ec.dgc.booking.entity.PassengerEntity;
 import eu.europa.ec.dgc.booking.exception.BookingNotFoundException;
 import eu.europa.ec.dgc.booking.exception.NotImplementedException;
-import java.util.Arrays;
+import eu.europa.ec.dgc.booking.mapper.BookingRequestMapper;
+import eu.europa.ec.dgc.booking.utils.IdGenerator;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
 import java.util.List;
-import java.util.Optional;
-import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.convert.ConversionService;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -61,7 +61,15 @@ public class BookingService {
 
     private final BookingPersistenceService persistence;
 
-    private final ConversionService converter;
+    private final BookingRequestMapper requestMapper;
+
+    private final IdGenerator idGenerator;
+
+    private final SyntheticData syntheticData;
+
+    private final BookingMutationExecutor mutations;
+
+    private final DccStatusNotifier dccStatusNotifier;
 
     /**
      * Return BookingEntity by session ID.
@@ -83,7 +91,7 @@ public class BookingService {
     }
 
     /**
-     * Return BookingEntity by reference.
+     * Return BookingEntity by reference. Preset bookings are shared by all sessions and must not be changed.
      * 
      * @param reference {@link String}
      * @return {@link BookingEntity}
@@ -95,60 +103,71 @@ public class BookingService {
     }
 
     /**
-     * Return current BookingEntity if passenger ID is found and limits the content to the passenger with the ID.
+     * Return the version of the booking of the passenger, without loading the booking.
+     * 
+     * @param passengerId Passenger ID
+     * @return version
+     */
+    public long getVersionByPassengerId(final String passengerId) {
+        return this.persistence.getVersionBySessionId(this.persistence.getSessionIdByPassengerId(passengerId));
+    }
+
+    /**
+     * Return current BookingEntity if passenger ID is found and limits the content to the passenger with the ID. Only
+     * this passenger is copied or decoded.
      * 
      * @param passengerId Passenger ID
      * @param serviceId Service ID (optional)
      * @return {@link BookingEntity}
      */
     public BookingEntity getOnlyPassengerId(final String passengerId, final String serviceId) {
-        final BookingEntity bookingEntity = this.getByPassengerId(passengerId);
-        final PassengerEntity passenger = bookingEntity.getPassengerById(passengerId)
-                .orElseThrow(() -> new BookingNotFoundException(
-                        String.format("Booking not found by passenger ID '%s'", passengerId)));
-
+        final UUID id = UUID.fromString(passengerId);
+        final String sessionId = this.persistence.getSessionIdByPassengerId(id);
         if (serviceId != null && !serviceId.isBlank()) {
-            passenger.setServiceIdUsed(serviceId);
-            this.persistence.save(this.persistence.getSessionIdByPassengerId(passengerId), bookingEntity);
+            return this.onlyPassenger(this.mutations.execute(sessionId, () -> this.persistence.update(sessionId,
+                    booking -> this.getPassenger(booking, passengerId).setServiceIdUsed(serviceId))), id);
         }
-
-        bookingEntity.setPassengers(Arrays.asList(passenger));
-        return bookingEntity;
+        return this.persistence.getWithPassengerBySessionId(sessionId, id);
     }
 
     /**
-     * Create and write BookingEntity to session. if an entry already exists, it will be deleted.
+     * Create and write BookingEntity to session. if an entry already exists, it will be deleted. For an existing
+     * preset reference nothing is written and the preset booking is returned.
      * 
      * @param sessionId current Session ID
      * @param request data from the frontend
      * @param dccStatus status manipulation for test purposes
+     * @return the written or the preset {@link BookingEntity}
      */
-    public void create(final String sessionId, final BookingRequest request, final DevDccStatus dccStatus) {
-        final Optional<BookingEntity> entity = this.persistence.getByReference(request.getBookingReference());
-        final boolean isPreset = entity.isPresent()
-                && request.getBookingReference() != null
-                && request.getBookingReference().startsWith("preset");
+    public BookingEntity create(final String sessionId, final BookingRequest request, final DevDccStatus dccStatus) {
+        final boolean isPreset = PresetBookingCache.isPreset(request.getBookingReference())
+                && this.persistence.existsByReference(request.getBookingReference());
         if (!isPreset) {
             log.info("Create new BookingEntity for reference '{}'", request.getBookingReference());
-            final BookingEntity bookingEntity = new BookingEntity();
-            bookingEntity.setReference(request.getBookingReference());
-            bookingEntity.addPassenger(PassengerEntity.build(request));
+            final BookingEntity bookingEntity = BookingEntity.random(request.getBookingReference(), this.syntheticData);
+            bookingEntity.addPassenger(PassengerEntity.build(request, this.idGenerator));
 
             int passengersMin = dccStatus == DevDccStatus.MIX ? 1 : this.passengersGeneratorMin;
-            Integer numberToGenerate = new Random().nextInt(this.passengersGeneratorMax - passengersMin)
+            Integer numberToGenerate = this.syntheticData.nextInt(this.passengersGeneratorMax - passengersMin)
                     + passengersMin;
             for (int i = 0; i < numberToGenerate; i++) {
                 if (this.passengersRandom) {
-                    bookingEntity.addPassenger(PassengerEntity.random());
+                    bookingEntity.addPassenger(PassengerEntity.random(this.idGenerator, this.syntheticData));
                 } else {
-                    bookingEntity.addPassenger(PassengerEntity.immutable(i));
+                    bookingEntity.addPassenger(PassengerEntity.immutable(i, this.idGenerator));
                 }
             }
 
             this.updatePassengersDccStatus(dccStatus, bookingEntity);
-            this.persistence.save(sessionId, bookingEntity);
+            this.mutations.execute(sessionId, () -> {
+                this.persistence.save(sessionId, bookingEntity);
+                return bookingEntity;
+            });
+            this.notifyDccStatus(sessionId);
+            return bookingEntity;
         } else {
             log.info("Use existing BookingEntity by reference '{}'", request.getBookingReference());
+            return this.getByReference(request.getBookingReference());
         }
     }
 
@@ -160,20 +179,45 @@ public class BookingService {
      * @return {@link BookingEntity}
      */
     public BookingEntity replace(final String sessionId, final BookingReplaceRequest request) {
-        final BookingEntity entity = this.converter.convert(request, BookingEntity.class);
-        this.persistence.deleteByReference(request.getReference());
-        this.persistence.save(sessionId, entity);
+        final BookingEntity entity = this.requestMapper.toBookingEntity(request);
+        // bookings of other sessions with the reference are deleted on their own lanes, before entering this one
+        this.persistence.deleteByReferences(List.of(request.getReference()), List.of(sessionId));
+        this.mutations.execute(sessionId, () -> {
+            this.persistence.save(sessionId, entity);
+            return entity;
+        });
+        this.notifyDccStatus(sessionId);
         return entity;
     }
 
     /**
-     * Checks whether DCC status is set for all passengers.
+     * Checks whether DCC status is set for all passengers, without loading the booking.
      * 
      * @return {@link Boolean}
      */
     public boolean existsDccBySessionId(String sessionId) {
-        return this.getBySessionId(sessionId).getPassengers().stream()
-                .allMatch(passenger -> passenger.getDccStatus() != null);
+        return this.persistence.countPendingDcc(sessionId) == 0;
+    }
+
+    /**
+     * Waits until the DCC status is set for all passengers. The returned future is completed by the request that
+     * stores the last missing DCC status, or right away if all are already set. Cancel the future to stop waiting.
+     * 
+     * @param sessionId Session ID
+     * @return {@link CompletableFuture}
+     */
+    public CompletableFuture<Void> awaitDccBySessionId(final String sessionId) {
+        final CompletableFuture<Void> waiter = this.dccStatusNotifier.register(sessionId);
+        try {
+            // checked after registering, so a result stored in between is not missed
+            if (this.existsDccBySessionId(sessionId)) {
+                waiter.complete(null);
+            }
+        } catch (RuntimeException e) {
+            waiter.cancel(false);
+            throw e;
+        }
+        return waiter;
     }
 
     /**
@@ -184,16 +228,30 @@ public class BookingService {
      * @return Number of changed passengers
      */
     public int updateResult(final String passengerId, final ResultStatusRequest resultRequest) {
-        final BookingEntity bookingEntity = this.getByPassengerId(passengerId);
-        final List<PassengerEntity> passengerForUpdate = bookingEntity.getPassengers().stream()
-                .filter(passenger -> passenger.getId().toString().equals(passengerId))
-                .collect(Collectors.toList());
-
-        passengerForUpdate.forEach(passenger -> {
-            final DccStatusEntity dccStatusEntity = converter.convert(resultRequest, DccStatusEntity.class);
-            passenger.setDccStatus(dccStatusEntity);
-        });
-        return passengerForUpdate.size();
+        final DccStatusEntity dccStatusEntity = this.requestMapper.toDccStatusEntity(resultRequest);
+        final String sessionId = this.persistence.getSessionIdByPassengerId(passengerId);
+        final int count = this.mutations.execute(sessionId,
+                () -> this.persistence.updateDccStatus(passengerId, dccStatusEntity));
+        this.notifyDccStatus(sessionId);
+        return count;
+    }
+
+    private void notifyDccStatus(final String sessionId) {
+        if (this.dccStatusNotifier.hasWaiters(sessionId) && this.existsDccBySessionId(sessionId)) {
+            this.dccStatusNotifier.complete(sessionId);
+        }
+    }
+
+    private BookingEntity onlyPassenger(final BookingEntity bookingEntity, final UUID passengerId) {
+        return bookingEntity.copyWithPassenger(passengerId)
+                .orElseThrow(() -> new BookingNotFoundException(
+                        String.format("Booking not found by passenger ID '%s'", passengerId)));
+    }
+
+    private PassengerEntity getPassenger(final BookingEntity bookingEntity, final String passengerId) {
+        return bookingEntity.getPassengerById(passengerId)
+                .orElseThrow(() -> new BookingNotFoundException(
+                        String.format("Booking not found by passenger ID '%s'", passengerId)));
     }
 
     private void updatePassengersDccStatus(DevDccStatus dccStatus, BookingEntity bookingEntity) {
@@ -0,0 +1,43 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import javax.servlet.http.HttpSessionEvent;
+import javax.servlet.http.HttpSessionListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands the IDs of destroyed HTTP sessions to the {@link BookingSweeper}. The booking of an ended session is still
+ * reachable by passenger ID, e.g. through /tokencontent, /result and /boardingPass, until the next sweeper run
+ * deletes it. Preset bookings are kept.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingSessionListener implements HttpSessionListener {
+
+    private final BookingSweeper sweeper;
+
+    @Override
+    public void sessionDestroyed(final HttpSessionEvent event) {
+        this.sweeper.sessionEnded(event.getSession().getId());
+    }
+}
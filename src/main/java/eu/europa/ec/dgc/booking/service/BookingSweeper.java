@@ -0,0 +1,145 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes bookings of ended sessions and bookings that were not saved for longer than the TTL, preset bookings are
+ * kept. Purging runs on the scheduler thread in bounded batches, request threads only enqueue ended sessions.
+ */
+@Slf4j
+@Component
+public class BookingSweeper {
+
+    private final BookingPersistenceService persistence;
+
+    private final Duration ttl;
+
+    private final int batchSize;
+
+    private final int maxBatches;
+
+    private final BlockingQueue<String> endedSessions;
+
+    private final DistributionSummary purgedPerRun;
+
+    private final Timer sweepDuration;
+
+    /**
+     * Constructor.
+     *
+     * @param persistence {@link BookingPersistenceService}
+     * @param ttlSeconds seconds after the last save after which a booking expires
+     * @param batchSize maximum number of bookings deleted in one transaction
+     * @param maxBatches maximum number of batches per run, the rest is left for the next run
+     * @param queueCapacity maximum number of queued ended sessions, further sessions expire with the TTL
+     * @param meterRegistry registry for the sweeper metrics
+     */
+    public BookingSweeper(
+            final BookingPersistenceService persistence,
+            @Value("${booking.expiry.ttl-seconds:86400}") final long ttlSeconds,
+            @Value("${booking.expiry.batch-size:500}") final int batchSize,
+            @Value("${booking.expiry.max-batches:20}") final int maxBatches,
+            @Value("${booking.expiry.queue-capacity:100000}") final int queueCapacity,
+            final MeterRegistry meterRegistry) {
+        log.info("Configuration of booking sweeper with TTL '{}s', batch size '{}' and max batches '{}'",
+                ttlSeconds, batchSize, maxBatches);
+        this.persistence = persistence;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.endedSessions = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("booking.store.bookings", persistence, BookingPersistenceService::count)
+                .description("Number of stored bookings")
+                .register(meterRegistry);
+        Gauge.builder("booking.sweeper.queue", this.endedSessions, BlockingQueue::size)
+                .description("Number of ended sessions waiting to be purged")
+                .register(meterRegistry);
+        this.purgedPerRun = DistributionSummary.builder("booking.sweeper.purged")
+                .description("Number of bookings purged per sweeper run")
+                .register(meterRegistry);
+        this.sweepDuration = Timer.builder("booking.sweeper.duration")
+                .description("Duration of a sweeper run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the bookings of an ended session for deletion, never blocks.
+     *
+     * @param sessionId Session ID
+     */
+    public void sessionEnded(final String sessionId) {
+        if (!this.endedSessions.offer(sessionId)) {
+            log.debug("Sweeper queue is full, booking of session '{}' will expire with the TTL", sessionId);
+        }
+    }
+
+    /**
+     * Deletes the bookings of ended sessions and expired bookings.
+     */
+    @Scheduled(initialDelayString = "${booking.expiry.sweep-delay-ms:60000}",
+            fixedDelayString = "${booking.expiry.sweep-delay-ms:60000}")
+    public void sweep() {
+        final int purged = this.sweepDuration.record(() -> this.purgeEndedSessions() + this.purgeExpired());
+        this.purgedPerRun.record(purged);
+        if (purged > 0) {
+            log.debug("Sweeper purged '{}' bookings", purged);
+        }
+    }
+
+    private int purgeEndedSessions() {
+        int purged = 0;
+        final List<String> batch = new ArrayList<>(this.batchSize);
+        for (int i = 0; i < this.maxBatches && this.endedSessions.drainTo(batch, this.batchSize) > 0; i++) {
+            purged += this.persistence.deleteBySessionIds(batch);
+            batch.clear();
+        }
+        return purged;
+    }
+
+    private int purgeExpired() {
+        final Instant savedBefore = Instant.now().minus(this.ttl);
+        int purged = 0;
+        for (int i = 0; i < this.maxBatches; i++) {
+            final int deleted = this.persistence.deleteExpired(savedBefore, this.batchSize);
+            purged += deleted;
+            if (deleted < this.batchSize) {
+                break;
+            }
+        }
+        return purged;
+    }
+}
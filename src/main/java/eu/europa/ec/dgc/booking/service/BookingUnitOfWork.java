@@ -0,0 +1,150 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Identity map of the current request, so that a booking and a passenger mapping are loaded at most once per
+ * request. The state is kept in a request attribute, outside of a request every lookup misses and nothing is kept.
+ * Bookings are kept as private snapshots, callers always receive a copy.
+ */
+@Component
+public class BookingUnitOfWork {
+
+    private static final String ATTRIBUTE = BookingUnitOfWork.class.getName();
+
+    /**
+     * Returns a copy of the booking of the session if it was already loaded in this request.
+     *
+     * @param sessionId Session ID
+     * @return {@link BookingEntity}
+     */
+    public Optional<BookingEntity> getBooking(final String sessionId) {
+        return this.state()
+                .map(state -> state.bookings.get(sessionId))
+                .map(BookingEntity::copy);
+    }
+
+    /**
+     * Applies the reader to the booking of the session without copying it, if it was already loaded in this request.
+     * The reader must not change the booking or keep a reference to it.
+     *
+     * @param sessionId Session ID
+     * @param reader reads the result from the booking
+     * @param <T> result type
+     * @return result of the reader
+     */
+    public <T> Optional<T> readBooking(final String sessionId, final Function<BookingEntity, T> reader) {
+        return this.state()
+                .map(state -> state.bookings.get(sessionId))
+                .map(reader);
+    }
+
+    /**
+     * Keeps a copy of the booking of the session for the rest of the request.
+     *
+     * @param sessionId Session ID
+     * @param booking {@link BookingEntity} as stored
+     */
+    public void putBooking(final String sessionId, final BookingEntity booking) {
+        this.state().ifPresent(state -> state.bookings.put(sessionId, booking.copy()));
+    }
+
+    /**
+     * Keeps the booking of the session for the rest of the request without copying it. The snapshot must never be
+     * changed, by the caller or anyone else, like the snapshots of the {@link BookingCache}.
+     *
+     * @param sessionId Session ID
+     * @param snapshot {@link BookingEntity} as stored
+     */
+    public void putSnapshot(final String sessionId, final BookingEntity snapshot) {
+        this.state().ifPresent(state -> state.bookings.put(sessionId, snapshot));
+    }
+
+    /**
+     * Returns the session ID of the passenger if it was already resolved in this request.
+     *
+     * @param passengerId Passenger ID
+     * @return Session ID
+     */
+    public Optional<String> getSessionId(final UUID passengerId) {
+        return this.state().map(state -> state.sessionIds.get(passengerId));
+    }
+
+    /**
+     * Keeps the session ID of the passenger for the rest of the request.
+     *
+     * @param passengerId Passenger ID
+     * @param sessionId Session ID
+     */
+    public void putSessionId(final UUID passengerId, final String sessionId) {
+        this.state().ifPresent(state -> state.sessionIds.put(passengerId, sessionId));
+    }
+
+    /**
+     * Forgets the booking of the session and all passenger mappings to the session, called on every write.
+     *
+     * @param sessionId Session ID
+     */
+    public void evict(final String sessionId) {
+        this.state().ifPresent(state -> {
+            state.bookings.remove(sessionId);
+            state.sessionIds.values().removeIf(sessionId::equals);
+        });
+    }
+
+    private Optional<State> state() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return Optional.empty();
+        }
+        try {
+            State state = (State) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (state == null) {
+                state = new State();
+                attributes.setAttribute(ATTRIBUTE, state, RequestAttributes.SCOPE_REQUEST);
+            }
+            return Optional.of(state);
+        } catch (IllegalStateException e) {
+            // the request is already completed
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * State of one request, used by one thread at a time.
+     */
+    private static class State {
+
+        private final Map<String, BookingEntity> bookings = new HashMap<>();
+
+        private final Map<UUID, String> sessionIds = new HashMap<>();
+    }
+}
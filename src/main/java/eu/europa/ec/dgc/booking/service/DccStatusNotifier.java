@@ -0,0 +1,79 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Waiters for the DCC status of all passengers of a session. Waiting does not hold a thread, the waiters are
+ * completed by the thread that stores the last missing DCC status.
+ */
+@Component
+public class DccStatusNotifier {
+
+    private final ConcurrentHashMap<String, Set<CompletableFuture<Void>>> waiters = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a waiter for the session. The waiter is removed when it is completed or cancelled.
+     *
+     * @param sessionId Session ID
+     * @return future completed when the DCC status of all passengers is known
+     */
+    public CompletableFuture<Void> register(final String sessionId) {
+        final CompletableFuture<Void> waiter = new CompletableFuture<>();
+        this.waiters.compute(sessionId, (id, sessionWaiters) -> {
+            final Set<CompletableFuture<Void>> result = sessionWaiters != null
+                    ? sessionWaiters : ConcurrentHashMap.newKeySet();
+            result.add(waiter);
+            return result;
+        });
+        waiter.whenComplete((result, e) -> this.waiters.computeIfPresent(sessionId, (id, sessionWaiters) -> {
+            sessionWaiters.remove(waiter);
+            return sessionWaiters.isEmpty() ? null : sessionWaiters;
+        }));
+        return waiter;
+    }
+
+    /**
+     * Checks whether anybody waits for the session.
+     *
+     * @param sessionId Session ID
+     * @return {@link Boolean}
+     */
+    public boolean hasWaiters(final String sessionId) {
+        return this.waiters.containsKey(sessionId);
+    }
+
+    /**
+     * Completes all waiters of the session.
+     *
+     * @param sessionId Session ID
+     */
+    public void complete(final String sessionId) {
+        final Set<CompletableFuture<Void>> sessionWaiters = this.waiters.remove(sessionId);
+        if (sessionWaiters != null) {
+            sessionWaiters.forEach(waiter -> waiter.complete(null));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.store.BookingStore;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory cache of preset bookings by reference. Preset bookings are read by many sessions, the cache keeps one
+ * snapshot per reference and hands it out without copying. The snapshot has an unmodifiable passenger list and must
+ * not be changed, writes go through the session that owns the preset, which works on its own copy of the stored
+ * booking and evicts the snapshot. Presets are loaded from the store on their first read.
+ */
+@Component
+@RequiredArgsConstructor
+public class PresetBookingCache {
+
+    private final BookingStore store;
+
+    private final ConcurrentHashMap<String, Preset> presets = new ConcurrentHashMap<>();
+
+    // reference of the preset owned by each session, so that a write to a session evicts without a scan
+    private final ConcurrentHashMap<String, String> referencesBySession = new ConcurrentHashMap<>();
+
+    /**
+     * Checks whether the reference is a preset reference.
+     *
+     * @param reference booking reference
+     * @return {@link Boolean}
+     */
+    public static boolean isPreset(final String reference) {
+        return BookingStore.isPreset(reference);
+    }
+
+    /**
+     * Returns the shared snapshot of the preset booking, the booking is loaded from the store if it is not cached.
+     * The snapshot must not be changed.
+     *
+     * @param reference preset reference
+     * @return {@link BookingEntity}
+     */
+    public Optional<BookingEntity> get(final String reference) {
+        return Optional.ofNullable(this.presets.computeIfAbsent(reference, this::loadPreset))
+                .map(preset -> preset.booking);
+    }
+
+    /**
+     * Checks whether the preset booking exists, the booking is loaded from the store if it is not cached.
+     *
+     * @param reference preset reference
+     * @return {@link Boolean}
+     */
+    public boolean exists(final String reference) {
+        return this.presets.computeIfAbsent(reference, this::loadPreset) != null;
+    }
+
+    /**
+     * Publishes the booking that was just written to the session, if it has a preset reference.
+     *
+     * @param sessionId Session ID
+     * @param booking {@link BookingEntity} as stored
+     */
+    public void put(final String sessionId, final BookingEntity booking) {
+        if (isPreset(booking.getReference())) {
+            final Preset previous = this.presets.put(booking.getReference(), this.preset(sessionId, booking.copy()));
+            if (previous != null && !previous.sessionId.equals(sessionId)) {
+                this.referencesBySession.remove(previous.sessionId, booking.getReference());
+            }
+        }
+    }
+
+    /**
+     * Evicts the preset owned by the session, called on every write to the session.
+     *
+     * @param sessionId Session ID
+     */
+    public void evictSession(final String sessionId) {
+        final String reference = this.referencesBySession.remove(sessionId);
+        if (reference != null) {
+            this.presets.computeIfPresent(reference,
+                    (ref, preset) -> preset.sessionId.equals(sessionId) ? null : preset);
+        }
+    }
+
+    private Preset loadPreset(final String reference) {
+        return this.store.findSessionIdByReference(reference)
+                .flatMap(sessionId -> this.store.findBySessionId(sessionId)
+                        .map(booking -> this.preset(sessionId, booking)))
+                .orElse(null);
+    }
+
+    private Preset preset(final String sessionId, final BookingEntity booking) {
+        booking.makePassengersReadOnly();
+        this.referencesBySession.put(sessionId, booking.getReference());
+        return new Preset(sessionId, booking);
+    }
+
+    @RequiredArgsConstructor
+    private static class Preset {
+
+        private final String sessionId;
+
+        private final BookingEntity booking;
+    }
+}
@@ -0,0 +1,114 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import eu.europa.ec.dgc.booking.dto.RenderedResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of rendered responses by session ID, booking version and response type. Only responses of the
+ * latest known version of a booking are kept, every write of the booking drops them.
+ */
+@Slf4j
+@Component
+public class RenderedResponseCache {
+
+    private static final String CACHE_NAME = "responses";
+
+    private final Cache<String, Responses> cache;
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize maximum number of bookings with cached responses
+     * @param ttlSeconds seconds after the last access after which the responses of a booking are evicted
+     * @param meterRegistry registry for hit, miss and eviction counters
+     */
+    public RenderedResponseCache(
+            @Value("${booking.response-cache.max-size:10000}") final long maxSize,
+            @Value("${booking.response-cache.ttl-seconds:600}") final long ttlSeconds,
+            final MeterRegistry meterRegistry) {
+        log.info("Configuration of rendered response cache with max size '{}' and TTL '{}s'", maxSize, ttlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the rendered response if it was rendered from the given version of the booking.
+     *
+     * @param sessionId Session ID
+     * @param version version of the booking
+     * @param type response type, including all parameters the response depends on
+     * @return {@link RenderedResponse}
+     */
+    public Optional<RenderedResponse> get(final String sessionId, final long version, final String type) {
+        return Optional.ofNullable(this.cache.getIfPresent(sessionId))
+                .filter(responses -> responses.version == version)
+                .map(responses -> responses.byType.get(type));
+    }
+
+    /**
+     * Keeps the rendered response, unless responses of a newer version of the booking are already cached.
+     *
+     * @param sessionId Session ID
+     * @param type response type, including all parameters the response depends on
+     * @param response {@link RenderedResponse}
+     */
+    public void put(final String sessionId, final String type, final RenderedResponse response) {
+        final Responses responses = this.cache.asMap().compute(sessionId, (id, current) ->
+                current == null || current.version < response.getVersion()
+                        ? new Responses(response.getVersion()) : current);
+        if (responses.version == response.getVersion()) {
+            responses.byType.put(type, response);
+        }
+    }
+
+    /**
+     * Drops all rendered responses of the booking.
+     *
+     * @param sessionId Session ID
+     */
+    public void invalidate(final String sessionId) {
+        this.cache.invalidate(sessionId);
+    }
+
+    @RequiredArgsConstructor
+    private static class Responses {
+
+        private final long version;
+
+        private final ConcurrentHashMap<String, RenderedResponse> byType = new ConcurrentHashMap<>();
+    }
+}
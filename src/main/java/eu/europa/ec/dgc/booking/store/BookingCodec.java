@@ -0,0 +1,228 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.store;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Encodes the persisted {@link BookingEntity} and passenger DCC status as JSON, Smile or CBOR, optionally deflate
+ * compressed.
+ * Every encoded booking starts with a header: two magic bytes, the header version and a flag byte
+ * (format in the low nibble, compression in the high nibble). Data without the magic bytes is a legacy JSON
+ * booking as it was stored before the header was introduced.
+ */
+@Slf4j
+@Component
+public class BookingCodec {
+
+    private static final int HEADER_LENGTH = 4;
+
+    private static final byte MAGIC_0 = (byte) 0xB0;
+
+    private static final byte MAGIC_1 = (byte) 0x0C;
+
+    private static final byte HEADER_VERSION = 1;
+
+    private static final int FLAG_FORMAT = 0x0F;
+
+    private static final int FLAG_COMPRESSED = 0x10;
+
+    /**
+     * Data format of the encoded booking.
+     */
+    public enum Format {
+
+        JSON,
+
+        SMILE,
+
+        CBOR;
+    }
+
+    private final ObjectMapper[] mappers = new ObjectMapper[Format.values().length];
+
+    private final Format format;
+
+    private final boolean compress;
+
+    /**
+     * Constructor.
+     *
+     * @param mapper configured JSON {@link ObjectMapper}
+     * @param format format used to encode bookings
+     * @param compress deflate compression of encoded bookings
+     */
+    public BookingCodec(
+            final ObjectMapper mapper,
+            @Value("${booking.codec.format:SMILE}") final Format format,
+            @Value("${booking.codec.compress:false}") final boolean compress) {
+        log.info("Configuration of booking codec with format '{}' and compression '{}'", format, compress);
+        this.format = format;
+        this.compress = compress;
+        this.mappers[Format.JSON.ordinal()] = mapper;
+        this.mappers[Format.SMILE.ordinal()] = binaryMapper(
+                new SmileFactory().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES));
+        this.mappers[Format.CBOR.ordinal()] = binaryMapper(new CBORFactory());
+    }
+
+    /**
+     * Encodes the value with the configured format.
+     *
+     * @param value {@link BookingEntity} or one of its parts
+     * @return encoded value including header
+     */
+    public byte[] encode(final Object value) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        out.write(MAGIC_0);
+        out.write(MAGIC_1);
+        out.write(HEADER_VERSION);
+        out.write(this.format.ordinal() | (this.compress ? FLAG_COMPRESSED : 0));
+        try {
+            if (this.compress) {
+                final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                try (OutputStream deflate = new DeflaterOutputStream(out, deflater)) {
+                    this.mappers[this.format.ordinal()].writeValue(deflate, value);
+                } finally {
+                    deflater.end();
+                }
+            } else {
+                this.mappers[this.format.ordinal()].writeValue(out, value);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a value in any supported format, including legacy JSON without header.
+     *
+     * @param data encoded value
+     * @param type type of the value
+     * @param <T> type of the value
+     * @return decoded value
+     * @throws IllegalArgumentException if the data is corrupt or the header version or flags are not supported
+     */
+    public <T> T decode(final byte[] data, final Class<T> type) {
+        try {
+            if (!hasHeader(data)) {
+                return this.mappers[Format.JSON.ordinal()].readValue(data, type);
+            }
+            final ObjectMapper mapper = this.mapperOf(data);
+            if ((data[3] & FLAG_COMPRESSED) != 0) {
+                try (InputStream in = new InflaterInputStream(
+                        new ByteArrayInputStream(data, HEADER_LENGTH, data.length - HEADER_LENGTH))) {
+                    return mapper.readValue(in, type);
+                }
+            }
+            return mapper.readValue(data, HEADER_LENGTH, data.length - HEADER_LENGTH, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Returns a lazy view of an encoded booking that decodes only the requested parts.
+     *
+     * @param data encoded {@link BookingEntity}
+     * @return {@link BookingDocument}
+     */
+    public BookingDocument document(final byte[] data) {
+        return new BookingDocument(this, data);
+    }
+
+    /**
+     * Creates a parser for a value in any supported format, including legacy JSON without header. The parser has
+     * the {@link ObjectMapper} of the format as codec.
+     *
+     * @param data encoded value
+     * @return {@link JsonParser}
+     * @throws IOException if the parser cannot be created
+     * @throws IllegalArgumentException if the header version or flags are not supported
+     */
+    JsonParser createParser(final byte[] data) throws IOException {
+        if (!hasHeader(data)) {
+            return this.mappers[Format.JSON.ordinal()].createParser(data);
+        }
+        final ObjectMapper mapper = this.mapperOf(data);
+        if ((data[3] & FLAG_COMPRESSED) != 0) {
+            return mapper.createParser(new InflaterInputStream(
+                    new ByteArrayInputStream(data, HEADER_LENGTH, data.length - HEADER_LENGTH)));
+        }
+        return mapper.createParser(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+    }
+
+    /**
+     * Checks whether the data is encoded with the configured format and header version. Values for which this
+     * returns false should be re-encoded.
+     *
+     * @param data encoded value
+     * @return {@link Boolean}
+     */
+    public boolean isCurrent(final byte[] data) {
+        return hasHeader(data)
+                && data[2] == HEADER_VERSION
+                && data[3] == (byte) (this.format.ordinal() | (this.compress ? FLAG_COMPRESSED : 0));
+    }
+
+    private ObjectMapper mapperOf(final byte[] data) {
+        if (data[2] != HEADER_VERSION) {
+            throw new IllegalArgumentException("Unsupported booking header version " + data[2]);
+        }
+        final int format = data[3] & FLAG_FORMAT;
+        if (format >= this.mappers.length || (data[3] & ~(FLAG_FORMAT | FLAG_COMPRESSED)) != 0) {
+            throw new IllegalArgumentException(String.format("Unsupported booking header flags 0x%02X", data[3]));
+        }
+        return this.mappers[format];
+    }
+
+    private static boolean hasHeader(final byte[] data) {
+        return data.length >= HEADER_LENGTH && data[0] == MAGIC_0 && data[1] == MAGIC_1;
+    }
+
+    private static ObjectMapper binaryMapper(final JsonFactory factory) {
+        // same configuration as the JSON ObjectMapper, see ObjectMapperConfig
+        return new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+}
@@ -0,0 +1,223 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.store;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.FlightInfoEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Read-only view of an encoded booking that decodes only the parts a caller asks for. The document is streamed
+ * with the parser of its format, passengers that are not selected are skipped with
+ * {@link JsonParser#skipChildren()} and never become objects. A view is cheap to create, every call parses the
+ * document again.
+ */
+public final class BookingDocument {
+
+    private static final String REFERENCE = "reference";
+
+    private static final String TIME = "time";
+
+    private static final String FLIGHT_INFO = "flightInfo";
+
+    private static final String PASSENGERS = "passengers";
+
+    private static final String PASSENGER_ID = "id";
+
+    private static final int UUID_LENGTH = 16;
+
+    private final BookingCodec codec;
+
+    private final byte[] data;
+
+    BookingDocument(final BookingCodec codec, final byte[] data) {
+        this.codec = codec;
+        this.data = data;
+    }
+
+    /**
+     * Decodes the booking with only the passenger with the ID.
+     *
+     * @param passengerId Passenger ID
+     * @return {@link BookingEntity}, empty if the booking has no passenger with the ID
+     */
+    public Optional<BookingEntity> withPassenger(final UUID passengerId) {
+        final BookingEntity booking = this.decode(passengerId::equals);
+        return booking.getPassengers().isEmpty() ? Optional.empty() : Optional.of(booking);
+    }
+
+    /**
+     * Decodes the booking with only the first passenger, if there is one.
+     *
+     * @return {@link BookingEntity}
+     */
+    public BookingEntity withFirstPassenger() {
+        return this.decode(passengerId -> true);
+    }
+
+    /**
+     * Decodes reference, time, flight info and the first passenger for which the filter is true.
+     */
+    private BookingEntity decode(final Predicate<UUID> filter) {
+        try (JsonParser parser = this.codec.createParser(this.data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Booking document is not an object");
+            }
+            final BookingEntity booking = new BookingEntity();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.getCurrentName();
+                parser.nextToken();
+                switch (name) {
+                    case REFERENCE:
+                        booking.setReference(parser.getValueAsString());
+                        break;
+                    case TIME:
+                        booking.setTime(parser.readValueAs(OffsetDateTime.class));
+                        break;
+                    case FLIGHT_INFO:
+                        booking.setFlightInfo(parser.readValueAs(FlightInfoEntity.class));
+                        break;
+                    case PASSENGERS:
+                        booking.setPassengers(readPassengers(parser, filter));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return booking;
+        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Reads the passenger array up to the first passenger selected by the filter and skips everything else.
+     */
+    private static List<PassengerEntity> readPassengers(final JsonParser parser, final Predicate<UUID> filter)
+            throws IOException {
+        final List<PassengerEntity> passengers = new ArrayList<>(1);
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return passengers;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            final PassengerEntity passenger = parser.currentToken() == JsonToken.START_OBJECT
+                    ? readPassengerIfSelected(parser, filter) : null;
+            if (passenger != null) {
+                passengers.add(passenger);
+                skipRemainingElements(parser);
+                break;
+            }
+            parser.skipChildren();
+        }
+        return passengers;
+    }
+
+    /**
+     * Reads the passenger object the parser is positioned at, if its ID is selected. The ID is written as first
+     * property of a passenger, properties before it in older documents are buffered. A passenger that is not selected
+     * is skipped without decoding its other properties.
+     */
+    private static PassengerEntity readPassengerIfSelected(final JsonParser parser, final Predicate<UUID> filter)
+            throws IOException {
+        // created on the first property that is kept, skipped passengers do not need a buffer
+        TokenBuffer buffer = null;
+        boolean hasId = false;
+        UUID id = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (!hasId && PASSENGER_ID.equals(parser.getCurrentName())) {
+                parser.nextToken();
+                id = readPassengerId(parser);
+                if (!filter.test(id)) {
+                    skipRemainingProperties(parser);
+                    return null;
+                }
+                hasId = true;
+            } else {
+                if (buffer == null) {
+                    buffer = new TokenBuffer(parser);
+                    buffer.writeStartObject();
+                }
+                buffer.copyCurrentStructure(parser);
+            }
+        }
+        if (!hasId && !filter.test(null)) {
+            return null;
+        }
+        if (buffer == null) {
+            buffer = new TokenBuffer(parser);
+            buffer.writeStartObject();
+        }
+        buffer.writeEndObject();
+        try (JsonParser properties = buffer.asParser(parser.getCodec())) {
+            final PassengerEntity passenger = properties.readValueAs(PassengerEntity.class);
+            passenger.setId(id);
+            return passenger;
+        }
+    }
+
+    /**
+     * Reads the passenger ID without a databind call per passenger. IDs are strings in JSON and 16 bytes in Smile
+     * and CBOR.
+     */
+    private static UUID readPassengerId(final JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return UUID.fromString(parser.getText());
+            case VALUE_EMBEDDED_OBJECT:
+                final byte[] bytes = parser.getBinaryValue();
+                if (bytes.length == UUID_LENGTH) {
+                    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                    return new UUID(buffer.getLong(), buffer.getLong());
+                }
+                return parser.readValueAs(UUID.class);
+            default:
+                return parser.readValueAs(UUID.class);
+        }
+    }
+
+    private static void skipRemainingProperties(final JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
+    private static void skipRemainingElements(final JsonParser parser) throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+        }
+    }
+}
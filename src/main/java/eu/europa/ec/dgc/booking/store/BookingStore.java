@@ -0,0 +1,217 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.store;
+
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Storage of bookings by session ID. The implementation is selected with the property "booking.store".
+ * Bookings returned by a store belong to the caller, changing them has no effect on the store.
+ */
+public interface BookingStore {
+
+    /**
+     * Prefix of preset booking references. Preset bookings are shared by all sessions, they are kept until they are
+     * replaced or deleted by reference and never purged with the session that wrote them or by the TTL.
+     */
+    String PRESET_PREFIX = "preset";
+
+    /**
+     * Checks whether the reference is a preset reference.
+     *
+     * @param reference booking reference
+     * @return {@link Boolean}
+     */
+    static boolean isPreset(final String reference) {
+        return reference != null && reference.startsWith(PRESET_PREFIX);
+    }
+
+    /**
+     * Returns the booking of the session.
+     *
+     * @param sessionId Session ID
+     * @return {@link BookingEntity}
+     */
+    Optional<BookingEntity> findBySessionId(String sessionId);
+
+    /**
+     * Returns the booking of the session with only the passenger with the ID. Stores decode only this passenger
+     * where the storage format allows it.
+     *
+     * @param sessionId Session ID
+     * @param passengerId Passenger ID
+     * @return {@link BookingEntity}, empty if there is no booking or the booking has no passenger with the ID
+     */
+    Optional<BookingEntity> findWithPassengerBySessionId(String sessionId, UUID passengerId);
+
+    /**
+     * Returns the booking of the session with only its first passenger. Stores decode only this passenger where
+     * the storage format allows it.
+     *
+     * @param sessionId Session ID
+     * @return {@link BookingEntity}
+     */
+    Optional<BookingEntity> findWithFirstPassengerBySessionId(String sessionId);
+
+    /**
+     * Returns the session ID of the booking the passenger belongs to.
+     *
+     * @param passengerId Passenger ID
+     * @return Session ID
+     */
+    Optional<String> findSessionIdByPassengerId(UUID passengerId);
+
+    /**
+     * Checks whether a booking with the reference exists.
+     *
+     * @param reference booking reference
+     * @return {@link Boolean}
+     */
+    boolean existsByReference(String reference);
+
+    /**
+     * Returns the session ID of a booking with the reference.
+     *
+     * @param reference booking reference
+     * @return Session ID
+     */
+    Optional<String> findSessionIdByReference(String reference);
+
+    /**
+     * Returns the session IDs of all bookings with one of the references.
+     *
+     * @param references booking references
+     * @return reference of the booking by Session ID
+     */
+    Map<String, String> findSessionIdsByReferences(Collection<String> references);
+
+    /**
+     * Returns all distinct references of stored bookings that start with the prefix.
+     *
+     * @param prefix reference prefix
+     * @return references
+     */
+    List<String> findReferencesStartingWith(String prefix);
+
+    /**
+     * Saves the booking of the session, an existing booking of the session is replaced regardless of its version.
+     *
+     * @param sessionId Session ID
+     * @param booking {@link BookingEntity}
+     */
+    void save(String sessionId, BookingEntity booking);
+
+    /**
+     * Replaces the booking of the session only if the stored version still equals the version of the booking.
+     * On success the version of the booking is incremented to the new stored version.
+     *
+     * @param sessionId Session ID
+     * @param booking {@link BookingEntity} read from this store and changed since
+     * @return false if the booking was changed or deleted in the meantime
+     */
+    boolean compareAndSave(String sessionId, BookingEntity booking);
+
+    /**
+     * Deletes all bookings with the reference.
+     *
+     * @param reference booking reference
+     * @return Session IDs of the deleted bookings
+     */
+    List<String> deleteByReference(String reference);
+
+    /**
+     * Deletes the booking of the session if it still has the reference. Preset bookings are deleted as well.
+     *
+     * @param reference booking reference
+     * @param sessionId Session ID
+     * @return false if the session has no booking with the reference
+     */
+    boolean deleteByReference(String reference, String sessionId);
+
+    /**
+     * Replaces the bookings of many sessions at once: all bookings with the reference of one of the bookings are
+     * deleted and the bookings are saved to their sessions. The result equals {@link #deleteByReference(String)} and
+     * {@link #save(String, BookingEntity)} per booking, the references of the bookings must be distinct.
+     *
+     * @param bookings {@link BookingEntity} by Session ID
+     * @return Session IDs of the deleted bookings
+     */
+    List<String> replaceAll(Map<String, BookingEntity> bookings);
+
+    /**
+     * Updates the DCC status of one passenger and increments the version of its booking. If several sessions use the
+     * same passenger ID, the booking saved last gets the status and the others are kept unchanged.
+     *
+     * @param passengerId Passenger ID
+     * @param dccStatus {@link DccStatusEntity}
+     * @return Number of changed passengers
+     */
+    int updateDccStatus(UUID passengerId, DccStatusEntity dccStatus);
+
+    /**
+     * Returns the version of the booking, without loading the booking. Versions increase with every write and are
+     * not repeated when a booking of the session is deleted and created again.
+     *
+     * @param sessionId Session ID
+     * @return version, empty if there is no booking
+     */
+    Optional<Long> findVersion(String sessionId);
+
+    /**
+     * Returns the number of passengers of the booking without DCC status, without loading the booking.
+     *
+     * @param sessionId Session ID
+     * @return number of passengers without DCC status, empty if there is no booking
+     */
+    Optional<Integer> countPendingDcc(String sessionId);
+
+    /**
+     * Deletes the bookings of the sessions. Preset bookings are kept.
+     *
+     * @param sessionIds Session IDs
+     * @return Session IDs of the deleted bookings
+     */
+    List<String> deleteBySessionIds(Collection<String> sessionIds);
+
+    /**
+     * Deletes at most limit bookings that were last saved before the given instant, oldest first. Preset bookings
+     * are kept and do not count towards the limit.
+     *
+     * @param savedBefore bookings saved before this instant are expired
+     * @param limit maximum number of bookings to delete
+     * @return Session IDs of the deleted bookings
+     */
+    List<String> deleteExpired(Instant savedBefore, int limit);
+
+    /**
+     * Returns the number of stored bookings.
+     *
+     * @return number of bookings
+     */
+    long count();
+}
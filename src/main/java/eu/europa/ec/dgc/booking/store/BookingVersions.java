@@ -0,0 +1,48 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.store;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Initial versions of created bookings. A write increases the version by one, initial versions are derived from the
+ * clock with room for 2^16 writes in between and never repeat within the JVM. A booking that is deleted and created
+ * again therefore never reuses a version a client may still hold as ETag.
+ */
+final class BookingVersions {
+
+    private static final int WRITE_BITS = 16;
+
+    private static final AtomicLong LAST_INITIAL = new AtomicLong();
+
+    private BookingVersions() {
+    }
+
+    /**
+     * Returns the version of a newly created booking.
+     *
+     * @return version
+     */
+    static long initial() {
+        return LAST_INITIAL.accumulateAndGet(System.currentTimeMillis() << WRITE_BITS,
+                (last, now) -> Math.max(last + (1L << WRITE_BITS), now));
+    }
+}
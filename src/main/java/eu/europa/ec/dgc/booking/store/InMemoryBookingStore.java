@@ -0,0 +1,341 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.store;
+
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link BookingStore} that keeps immutable booking snapshots in memory. A snapshot is never changed after it was
+ * published, writes replace it under a lock striped by session ID and reads never lock.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "booking.store", havingValue = "memory")
+public class InMemoryBookingStore implements BookingStore {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    private final ConcurrentHashMap<String, BookingEntity> bookings = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Instant> savedAt = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Integer> pendingDcc = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Set<String>> sessionsByReference = new ConcurrentHashMap<>();
+
+    private final PassengerIndex passengerIndex = new PassengerIndex();
+
+    /**
+     * Constructor.
+     */
+    public InMemoryBookingStore() {
+        log.info("Configuration of in-memory booking store");
+        for (int i = 0; i < STRIPES; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Optional<BookingEntity> findBySessionId(final String sessionId) {
+        return Optional.ofNullable(this.bookings.get(sessionId)).map(BookingEntity::copy);
+    }
+
+    @Override
+    public Optional<BookingEntity> findWithPassengerBySessionId(final String sessionId, final UUID passengerId) {
+        return Optional.ofNullable(this.bookings.get(sessionId))
+                .flatMap(booking -> booking.copyWithPassenger(passengerId));
+    }
+
+    @Override
+    public Optional<BookingEntity> findWithFirstPassengerBySessionId(final String sessionId) {
+        return Optional.ofNullable(this.bookings.get(sessionId)).map(BookingEntity::copyWithFirstPassenger);
+    }
+
+    @Override
+    public Optional<String> findSessionIdByPassengerId(final UUID passengerId) {
+        return Optional.ofNullable(this.passengerIndex.get(passengerId));
+    }
+
+    @Override
+    public boolean existsByReference(final String reference) {
+        return this.findSessionIdByReference(reference).isPresent();
+    }
+
+    @Override
+    public Optional<String> findSessionIdByReference(final String reference) {
+        if (reference == null) {
+            return Optional.empty();
+        }
+        return this.sessionsByReference.getOrDefault(reference, Collections.emptySet()).stream().findFirst();
+    }
+
+    @Override
+    public Map<String, String> findSessionIdsByReferences(final Collection<String> references) {
+        final Map<String, String> sessionIds = new HashMap<>();
+        for (String reference : references) {
+            if (reference != null) {
+                this.sessionsByReference.getOrDefault(reference, Collections.emptySet())
+                        .forEach(sessionId -> sessionIds.put(sessionId, reference));
+            }
+        }
+        return sessionIds;
+    }
+
+    @Override
+    public List<String> findReferencesStartingWith(final String prefix) {
+        return this.sessionsByReference.keySet().stream()
+                .filter(reference -> reference.startsWith(prefix))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void save(final String sessionId, final BookingEntity booking) {
+        final BookingEntity snapshot = booking.copy();
+        final ReentrantLock lock = this.lock(sessionId);
+        lock.lock();
+        try {
+            final BookingEntity previous = this.bookings.get(sessionId);
+            snapshot.setVersion(previous != null ? previous.getVersion() + 1 : BookingVersions.initial());
+            this.publish(sessionId, snapshot, previous);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean compareAndSave(final String sessionId, final BookingEntity booking) {
+        final BookingEntity snapshot = booking.copy();
+        final ReentrantLock lock = this.lock(sessionId);
+        lock.lock();
+        try {
+            final BookingEntity previous = this.bookings.get(sessionId);
+            if (previous == null || previous.getVersion() != booking.getVersion()) {
+                return false;
+            }
+            snapshot.setVersion(previous.getVersion() + 1);
+            this.publish(sessionId, snapshot, previous);
+        } finally {
+            lock.unlock();
+        }
+        booking.setVersion(snapshot.getVersion());
+        return true;
+    }
+
+    @Override
+    public List<String> deleteByReference(final String reference) {
+        final Set<String> sessionIds = reference != null ? this.sessionsByReference.get(reference) : null;
+        if (sessionIds == null) {
+            return Collections.emptyList();
+        }
+        final List<String> deleted = new ArrayList<>();
+        for (String sessionId : new ArrayList<>(sessionIds)) {
+            if (this.deleteByReference(reference, sessionId)) {
+                deleted.add(sessionId);
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean deleteByReference(final String reference, final String sessionId) {
+        final ReentrantLock lock = this.lock(sessionId);
+        lock.lock();
+        try {
+            final BookingEntity booking = this.bookings.get(sessionId);
+            return booking != null && reference != null && reference.equals(booking.getReference())
+                    && this.delete(sessionId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<String> replaceAll(final Map<String, BookingEntity> bookings) {
+        final List<String> deleted = new ArrayList<>();
+        bookings.forEach((sessionId, booking) -> {
+            deleted.addAll(this.deleteByReference(booking.getReference()));
+            this.save(sessionId, booking);
+        });
+        return deleted;
+    }
+
+    @Override
+    public int updateDccStatus(final UUID passengerId, final DccStatusEntity dccStatus) {
+        final String sessionId = this.passengerIndex.get(passengerId);
+        if (sessionId == null) {
+            return 0;
+        }
+        final ReentrantLock lock = this.lock(sessionId);
+        lock.lock();
+        try {
+            final BookingEntity current = this.bookings.get(sessionId);
+            if (current == null) {
+                return 0;
+            }
+            // copy on write of the changed passenger only, readers keep the published snapshot
+            final Optional<BookingEntity> copy = current.copyForPassengerChange(passengerId);
+            if (copy.isEmpty()) {
+                return 0;
+            }
+            final BookingEntity updated = copy.get();
+            final PassengerEntity passenger = updated.getPassengerById(passengerId).orElseThrow();
+            final boolean pending = passenger.getDccStatus() == null;
+            passenger.setDccStatus(dccStatus);
+            updated.setVersion(current.getVersion() + 1);
+            this.bookings.put(sessionId, updated);
+            if (pending) {
+                this.pendingDcc.computeIfPresent(sessionId, (id, count) -> count - 1);
+            }
+            return 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<String> deleteBySessionIds(final Collection<String> sessionIds) {
+        final List<String> deleted = new ArrayList<>();
+        for (String sessionId : sessionIds) {
+            final ReentrantLock lock = this.lock(sessionId);
+            lock.lock();
+            try {
+                if (!this.isPresetSession(sessionId) && this.delete(sessionId)) {
+                    deleted.add(sessionId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<String> deleteExpired(final Instant savedBefore, final int limit) {
+        final List<String> candidates = this.savedAt.entrySet().stream()
+                .filter(entry -> entry.getValue().isBefore(savedBefore))
+                .filter(entry -> !this.isPresetSession(entry.getKey()))
+                .sorted(Map.Entry.comparingByValue())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        final List<String> deleted = new ArrayList<>();
+        for (String sessionId : candidates) {
+            final ReentrantLock lock = this.lock(sessionId);
+            lock.lock();
+            try {
+                // the booking may have been saved again since the scan
+                final Instant saved = this.savedAt.get(sessionId);
+                if (saved != null && saved.isBefore(savedBefore) && !this.isPresetSession(sessionId)
+                        && this.delete(sessionId)) {
+                    deleted.add(sessionId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public Optional<Long> findVersion(final String sessionId) {
+        return Optional.ofNullable(this.bookings.get(sessionId)).map(BookingEntity::getVersion);
+    }
+
+    @Override
+    public Optional<Integer> countPendingDcc(final String sessionId) {
+        return Optional.ofNullable(this.pendingDcc.get(sessionId));
+    }
+
+    @Override
+    public long count() {
+        return this.bookings.size();
+    }
+
+    private void publish(final String sessionId, final BookingEntity snapshot, final BookingEntity previous) {
+        this.bookings.put(sessionId, snapshot);
+        this.savedAt.put(sessionId, Instant.now());
+        this.pendingDcc.put(sessionId, snapshot.countPendingDcc());
+        if (previous != null && !Objects.equals(previous.getReference(), snapshot.getReference())) {
+            this.removeReference(previous.getReference(), sessionId);
+        }
+        if (snapshot.getReference() != null) {
+            this.sessionsByReference.compute(snapshot.getReference(), (ref, sessionIds) -> {
+                final Set<String> result = sessionIds != null ? sessionIds : ConcurrentHashMap.newKeySet();
+                result.add(sessionId);
+                return result;
+            });
+        }
+        this.passengerIndex.put(sessionId, snapshot.getPassengers().stream()
+                .map(PassengerEntity::getId)
+                .collect(Collectors.toList()));
+    }
+
+    private boolean isPresetSession(final String sessionId) {
+        final BookingEntity booking = this.bookings.get(sessionId);
+        return booking != null && BookingStore.isPreset(booking.getReference());
+    }
+
+    private boolean delete(final String sessionId) {
+        final BookingEntity booking = this.bookings.remove(sessionId);
+        if (booking == null) {
+            return false;
+        }
+        this.savedAt.remove(sessionId);
+        this.pendingDcc.remove(sessionId);
+        this.passengerIndex.remove(sessionId);
+        this.removeReference(booking.getReference(), sessionId);
+        return true;
+    }
+
+    private void removeReference(final String reference, final String sessionId) {
+        if (reference != null) {
+            this.sessionsByReference.computeIfPresent(reference, (ref, sessionIds) -> {
+                sessionIds.remove(sessionId);
+                return sessionIds.isEmpty() ? null : sessionIds;
+            });
+        }
+    }
+
+    private ReentrantLock lock(final String sessionId) {
+        return this.locks[(sessionId.hashCode() & Integer.MAX_VALUE) % STRIPES];
+    }
+}
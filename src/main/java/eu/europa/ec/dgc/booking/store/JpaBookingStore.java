@@ -0,0 +1,390 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.store;
+
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.BookingH2Entity;
+import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.entity.PassengersH2Entity;
+import eu.europa.ec.dgc.booking.repository.BookingH2Repository;
+import eu.europa.ec.dgc.booking.repository.PassengersH2Repository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link BookingStore} on the H2 tables "bookings" and "passengers". Bookings are encoded with
+ * {@link BookingCodec}, passenger IDs are resolved through an in-memory {@link PassengerIndex}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+@ConditionalOnProperty(name = "booking.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaBookingStore implements BookingStore {
+
+    private final BookingH2Repository bookingRepository;
+
+    private final PassengersH2Repository passengersRepository;
+
+    private final BookingCodec codec;
+
+    private final PassengerIndex passengerIndex = new PassengerIndex();
+
+    /**
+     * Rebuilds the passenger index from the passengers table.
+     */
+    @PostConstruct
+    void loadPassengerIndex() {
+        this.passengersRepository.findAll().stream()
+                .collect(Collectors.groupingBy(PassengersH2Entity::getSessionId,
+                        Collectors.mapping(PassengersH2Entity::getId, Collectors.toList())))
+                .forEach(this.passengerIndex::put);
+        log.info("Loaded '{}' passengers into the passenger index", this.passengerIndex.size());
+    }
+
+    @Override
+    public Optional<BookingEntity> findBySessionId(final String sessionId) {
+        return this.bookingRepository.findById(sessionId).map(entity -> {
+            final BookingEntity booking = this.codec.decode(entity.getBookingData(), BookingEntity.class);
+            booking.setVersion(entity.getVersion());
+            if (!this.codec.isCurrent(entity.getBookingData())) {
+                // upgrade legacy rows, skipped if the booking was written in the meantime
+                this.bookingRepository.updateEncoding(sessionId, entity.getVersion(), this.codec.encode(booking));
+            }
+            // DCC status results are written per passenger and take precedence over the booking document, the rows
+            // are only read if a result was written since the last write of the booking
+            if (entity.isDccUpdated()) {
+                this.passengersRepository.findBySessionIdAndDccStatusDataIsNotNull(sessionId).forEach(passenger ->
+                        booking.getPassengerById(passenger.getId()).ifPresent(passengerEntity -> passengerEntity
+                                .setDccStatus(this.codec.decode(passenger.getDccStatusData(),
+                                        DccStatusEntity.class))));
+            }
+            return booking;
+        });
+    }
+
+    /**
+     * Decodes only the passenger from the stored document, see {@link BookingDocument}.
+     * 
+     * @param sessionId Session ID
+     * @param passengerId Passenger ID
+     * @return {@link BookingEntity}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BookingEntity> findWithPassengerBySessionId(final String sessionId, final UUID passengerId) {
+        return this.bookingRepository.findById(sessionId).flatMap(entity -> this.codec
+                .document(entity.getBookingData())
+                .withPassenger(passengerId)
+                .map(booking -> this.withPassengerDccStatus(sessionId, entity, booking)));
+    }
+
+    /**
+     * Decodes only the first passenger from the stored document, see {@link BookingDocument}.
+     * 
+     * @param sessionId Session ID
+     * @return {@link BookingEntity}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BookingEntity> findWithFirstPassengerBySessionId(final String sessionId) {
+        return this.bookingRepository.findById(sessionId).map(entity -> this.withPassengerDccStatus(sessionId,
+                entity, this.codec.document(entity.getBookingData()).withFirstPassenger()));
+    }
+
+    private BookingEntity withPassengerDccStatus(final String sessionId, final BookingH2Entity entity,
+            final BookingEntity booking) {
+        booking.setVersion(entity.getVersion());
+        if (!entity.isDccUpdated()) {
+            return booking;
+        }
+        // the partial booking holds one passenger, its row is read by its key
+        booking.getPassengers().stream().filter(passengerEntity -> passengerEntity.getId() != null).forEach(
+                passengerEntity -> this.passengersRepository
+                        .findById(new PassengersH2Entity.Key(passengerEntity.getId(), sessionId))
+                        .filter(passenger -> passenger.getDccStatusData() != null)
+                        .ifPresent(passenger -> passengerEntity.setDccStatus(
+                                this.codec.decode(passenger.getDccStatusData(), DccStatusEntity.class))));
+        return booking;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findSessionIdByPassengerId(final UUID passengerId) {
+        return Optional.ofNullable(this.passengerIndex.get(passengerId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existsByReference(final String reference) {
+        return this.bookingRepository.existsByReference(reference);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findSessionIdByReference(final String reference) {
+        return this.bookingRepository.findSessionIdsByReference(reference, PageRequest.of(0, 1)).stream()
+                .findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, String> findSessionIdsByReferences(final Collection<String> references) {
+        if (references.isEmpty()) {
+            return Map.of();
+        }
+        return this.bookingRepository.findSessionIdsAndReferences(references).stream()
+                .collect(Collectors.toMap(row -> (String) row[0], row -> (String) row[1]));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> findReferencesStartingWith(final String prefix) {
+        return this.bookingRepository.findReferencesStartingWith(prefix);
+    }
+
+    /**
+     * Saves booking, if entries already exist, they will be replaced. The booking is written with a single upsert,
+     * the passengers with their DCC status with one JDBC batch.
+     * 
+     * @param sessionId Session ID
+     * @param booking Booking
+     */
+    @Override
+    public void save(final String sessionId, final BookingEntity booking) {
+        final Instant now = Instant.now();
+        this.bookingRepository.upsert(sessionId, booking.getReference(), this.codec.encode(booking), now,
+                booking.countPendingDcc(), BookingVersions.initial());
+        this.savePassengers(sessionId, booking);
+    }
+
+    /**
+     * Replaces the booking only if the version of the row still matches. The version check and the write are one
+     * conditional update, the passengers are written only if it succeeded.
+     * 
+     * @param sessionId Session ID
+     * @param booking Booking
+     * @return false if the booking was changed or deleted in the meantime
+     */
+    @Override
+    public boolean compareAndSave(final String sessionId, final BookingEntity booking) {
+        final int updated = this.bookingRepository.compareAndSet(sessionId, booking.getVersion(),
+                booking.getReference(), this.codec.encode(booking), Instant.now(), booking.countPendingDcc());
+        if (updated == 0) {
+            return false;
+        }
+        this.savePassengers(sessionId, booking);
+        booking.setVersion(booking.getVersion() + 1);
+        return true;
+    }
+
+    private void savePassengers(final String sessionId, final BookingEntity booking) {
+        this.passengersRepository.deleteAllBySessionId(sessionId);
+        this.passengersRepository.upsertAll(this.toPassengerRows(sessionId, booking));
+
+        final List<UUID> passengerIds = passengerIds(booking);
+        this.afterCommit(() -> this.passengerIndex.put(sessionId, passengerIds));
+    }
+
+    private List<PassengersH2Entity> toPassengerRows(final String sessionId, final BookingEntity booking) {
+        return booking.getPassengers().stream().map(passenger -> {
+            final PassengersH2Entity passEntity = new PassengersH2Entity();
+            passEntity.setId(passenger.getId());
+            passEntity.setSessionId(sessionId);
+            if (passenger.getDccStatus() != null) {
+                passEntity.setDccStatusData(this.codec.encode(passenger.getDccStatus()));
+            }
+            return passEntity;
+        }).collect(Collectors.toList());
+    }
+
+    private static List<UUID> passengerIds(final BookingEntity booking) {
+        return booking.getPassengers().stream()
+                .map(PassengerEntity::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> deleteByReference(final String reference) {
+        final List<String> sessionIds = this.bookingRepository.findSessionIdsByReference(reference);
+        if (!sessionIds.isEmpty()) {
+            this.passengersRepository.deleteAllByReference(reference);
+            this.bookingRepository.deleteByReference(reference);
+            this.afterCommit(() -> sessionIds.forEach(this.passengerIndex::remove));
+        }
+        return sessionIds;
+    }
+
+    @Override
+    public boolean deleteByReference(final String reference, final String sessionId) {
+        // the booking row is deleted first, a booking saved with another reference in the meantime is kept
+        if (this.bookingRepository.deleteBySessionIdAndReference(sessionId, reference) == 0) {
+            return false;
+        }
+        this.passengersRepository.deleteAllBySessionId(sessionId);
+        this.afterCommit(() -> this.passengerIndex.remove(sessionId));
+        return true;
+    }
+
+    /**
+     * Replaces the bookings in one transaction. The bookings with the references and the rows of the sessions are
+     * deleted with one statement each, the bookings and all their passengers are inserted with one JDBC batch each.
+     * 
+     * @param bookings {@link BookingEntity} by Session ID
+     * @return Session IDs of the deleted bookings
+     */
+    @Override
+    public List<String> replaceAll(final Map<String, BookingEntity> bookings) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+        final List<String> deleted = this.bookingRepository.findSessionIdsByReferences(bookings.values().stream()
+                .map(BookingEntity::getReference)
+                .collect(Collectors.toSet()));
+        final Set<String> sessionIds = new HashSet<>(deleted);
+        sessionIds.addAll(bookings.keySet());
+        this.passengersRepository.deleteAllBySessionIds(sessionIds);
+        this.bookingRepository.deleteBySessionIds(sessionIds);
+
+        final Instant now = Instant.now();
+        final List<BookingH2Entity> rows = new ArrayList<>(bookings.size());
+        final List<PassengersH2Entity> passengerRows = new ArrayList<>();
+        final Map<String, List<UUID>> passengerIds = new LinkedHashMap<>();
+        bookings.forEach((sessionId, booking) -> {
+            final BookingH2Entity row = new BookingH2Entity();
+            row.setSessionId(sessionId);
+            row.setReference(booking.getReference());
+            row.setBookingData(this.codec.encode(booking));
+            row.setSavedAt(now);
+            row.setPendingDcc(booking.countPendingDcc());
+            row.setVersion(BookingVersions.initial());
+            rows.add(row);
+            passengerRows.addAll(this.toPassengerRows(sessionId, booking));
+            passengerIds.put(sessionId, passengerIds(booking));
+        });
+        this.bookingRepository.insertAll(rows);
+        this.passengersRepository.upsertAll(passengerRows);
+
+        this.afterCommit(() -> {
+            deleted.forEach(this.passengerIndex::remove);
+            passengerIds.forEach(this.passengerIndex::put);
+        });
+        return deleted;
+    }
+
+    /**
+     * Updates the DCC status of one passenger without rewriting the booking. Only the row of the passenger is
+     * written and the version of the booking is incremented, so a concurrent compare-and-save of the booking that
+     * read the old status fails instead of overwriting the result. The row is keyed by the session the passenger
+     * index returns and the passenger ID, rows of other sessions with the same passenger ID are not touched.
+     * 
+     * @param passengerId Passenger ID
+     * @param dccStatus {@link DccStatusEntity}
+     * @return Number of changed passengers
+     */
+    @Override
+    public int updateDccStatus(final UUID passengerId, final DccStatusEntity dccStatus) {
+        final String sessionId = this.passengerIndex.get(passengerId);
+        if (sessionId == null) {
+            return 0;
+        }
+        // the booking row is locked first, in the same order as compareAndSave
+        this.bookingRepository.markDccUpdated(sessionId);
+        final boolean pending = this.passengersRepository
+                .existsByIdAndSessionIdAndDccStatusDataIsNull(passengerId, sessionId);
+        final int updated = this.passengersRepository.updateDccStatus(sessionId, passengerId,
+                this.codec.encode(dccStatus));
+        if (pending && updated > 0) {
+            this.bookingRepository.decrementPendingDcc(sessionId);
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(final String sessionId) {
+        return this.bookingRepository.findVersionBySessionId(sessionId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Integer> countPendingDcc(final String sessionId) {
+        return this.bookingRepository.findPendingDccBySessionId(sessionId);
+    }
+
+    @Override
+    public List<String> deleteBySessionIds(final Collection<String> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return List.of();
+        }
+        final List<String> existing = this.bookingRepository.findSessionIds(sessionIds, PRESET_PREFIX);
+        if (!existing.isEmpty()) {
+            this.passengersRepository.deleteAllBySessionIds(existing);
+            this.bookingRepository.deleteBySessionIds(existing);
+            this.afterCommit(() -> existing.forEach(this.passengerIndex::remove));
+        }
+        return existing;
+    }
+
+    @Override
+    public List<String> deleteExpired(final Instant savedBefore, final int limit) {
+        return this.deleteBySessionIds(this.bookingRepository.findSessionIdsSavedBefore(
+                savedBefore, PRESET_PREFIX, PageRequest.of(0, limit)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long count() {
+        return this.bookingRepository.count();
+    }
+
+    private void afterCommit(final Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.store;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory index passenger ID to session ID.
+ * Passenger IDs are stored as two longs in lock-striped open addressing tables, so a lookup neither boxes nor
+ * compares {@link UUID} objects. Lookups are optimistic and only take the stripe lock if a write interfered.
+ */
+public class PassengerIndex {
+
+    static final int STRIPE_BITS = 4;
+
+    static final int STRIPES = 1 << STRIPE_BITS;
+
+    static final int INITIAL_CAPACITY = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    // passenger IDs (msb, lsb pairs) by session ID, needed to remove a session
+    private final ConcurrentHashMap<String, long[]> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     */
+    public PassengerIndex() {
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Returns the session ID of the passenger.
+     *
+     * @param passengerId Passenger ID
+     * @return Session ID or null if the passenger is unknown
+     */
+    public String get(final UUID passengerId) {
+        final long msb = passengerId.getMostSignificantBits();
+        final long lsb = passengerId.getLeastSignificantBits();
+        final int hash = hash(msb, lsb);
+        return this.stripes[hash & (STRIPES - 1)].get(msb, lsb, hash >>> STRIPE_BITS);
+    }
+
+    /**
+     * Sets the passengers of a session. Passengers previously indexed for the session are removed.
+     *
+     * @param sessionId Session ID
+     * @param passengerIds Passenger IDs
+     */
+    public void put(final String sessionId, final Collection<UUID> passengerIds) {
+        final long[] keys = new long[passengerIds.size() * 2];
+        int pos = 0;
+        for (UUID passengerId : passengerIds) {
+            keys[pos++] = passengerId.getMostSignificantBits();
+            keys[pos++] = passengerId.getLeastSignificantBits();
+        }
+        this.sessions.compute(sessionId, (id, previous) -> {
+            if (previous != null) {
+                this.removeAll(id, previous);
+            }
+            for (int i = 0; i < keys.length; i += 2) {
+                final int hash = hash(keys[i], keys[i + 1]);
+                this.stripes[hash & (STRIPES - 1)].put(keys[i], keys[i + 1], hash >>> STRIPE_BITS, id);
+            }
+            return keys;
+        });
+    }
+
+    /**
+     * Removes all passengers of the session. Passengers that were indexed again for another session in the
+     * meantime are kept.
+     *
+     * @param sessionId Session ID
+     */
+    public void remove(final String sessionId) {
+        this.sessions.computeIfPresent(sessionId, (id, keys) -> {
+            this.removeAll(id, keys);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the number of indexed passengers.
+     *
+     * @return number of passengers
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : this.stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private void removeAll(final String sessionId, final long[] keys) {
+        for (int i = 0; i < keys.length; i += 2) {
+            final int hash = hash(keys[i], keys[i + 1]);
+            this.stripes[hash & (STRIPES - 1)].remove(keys[i], keys[i + 1], sessionId);
+        }
+    }
+
+    // package-private, tests use it to build colliding keys
+    static int hash(final long msb, final long lsb) {
+        long hash = msb * 0x9E3779B97F4A7C15L + lsb;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (hash ^ (hash >>> 31));
+    }
+
+    private static final class Stripe {
+
+        private final StampedLock lock = new StampedLock();
+
+        private long[] msbs = new long[INITIAL_CAPACITY];
+
+        private long[] lsbs = new long[INITIAL_CAPACITY];
+
+        // null marks a free slot
+        private String[] values = new String[INITIAL_CAPACITY];
+
+        private int size;
+
+        String get(final long msb, final long lsb, final int hash) {
+            long stamp = this.lock.tryOptimisticRead();
+            String value = this.find(msb, lsb, hash);
+            if (!this.lock.validate(stamp)) {
+                stamp = this.lock.readLock();
+                try {
+                    value = this.find(msb, lsb, hash);
+                } finally {
+                    this.lock.unlockRead(stamp);
+                }
+            }
+            return value;
+        }
+
+        void put(final long msb, final long lsb, final int hash, final String value) {
+            final long stamp = this.lock.writeLock();
+            try {
+                if ((this.size + 1) * 2 > this.values.length) {
+                    this.resize(this.values.length * 2);
+                }
+                final int mask = this.values.length - 1;
+                int slot = hash & mask;
+                while (this.values[slot] != null) {
+                    if (this.msbs[slot] == msb && this.lsbs[slot] == lsb) {
+                        this.values[slot] = value;
+                        return;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                this.msbs[slot] = msb;
+                this.lsbs[slot] = lsb;
+                this.values[slot] = value;
+                this.size++;
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        void remove(final long msb, final long lsb, final String expected) {
+            final long stamp = this.lock.writeLock();
+            try {
+                final int mask = this.values.length - 1;
+                int hole = this.slotOf(msb, lsb, hash(msb, lsb) >>> STRIPE_BITS);
+                if (hole < 0 || !this.values[hole].equals(expected)) {
+                    return;
+                }
+                // backward shift deletion keeps the probe sequences intact without tombstones
+                int next = (hole + 1) & mask;
+                while (this.values[next] != null) {
+                    final int ideal = (hash(this.msbs[next], this.lsbs[next]) >>> STRIPE_BITS) & mask;
+                    if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                        this.msbs[hole] = this.msbs[next];
+                        this.lsbs[hole] = this.lsbs[next];
+                        this.values[hole] = this.values[next];
+                        hole = next;
+                    }
+                    next = (next + 1) & mask;
+                }
+                this.values[hole] = null;
+                this.size--;
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            final long stamp = this.lock.readLock();
+            try {
+                return this.size;
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        private String find(final long msb, final long lsb, final int hash) {
+            // arrays are read once, a concurrent resize is detected by the stamp validation of the caller
+            final long[] msbs = this.msbs;
+            final long[] lsbs = this.lsbs;
+            final String[] values = this.values;
+            if (msbs.length != values.length || lsbs.length != values.length) {
+                return null;
+            }
+            final int mask = values.length - 1;
+            int slot = hash & mask;
+            for (int probes = 0; probes < values.length; probes++) {
+                final String value = values[slot];
+                if (value == null) {
+                    return null;
+                }
+                if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                    return value;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private int slotOf(final long msb, final long lsb, final int hash) {
+            final int mask = this.values.length - 1;
+            int slot = hash & mask;
+            while (this.values[slot] != null) {
+                if (this.msbs[slot] == msb && this.lsbs[slot] == lsb) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void resize(final int capacity) {
+            final long[] oldMsbs = this.msbs;
+            final long[] oldLsbs = this.lsbs;
+            final String[] oldValues = this.values;
+            final long[] newMsbs = new long[capacity];
+            final long[] newLsbs = new long[capacity];
+            final String[] newValues = new String[capacity];
+            final int mask = capacity - 1;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = (hash(oldMsbs[i], oldLsbs[i]) >>> STRIPE_BITS) & mask;
+                    while (newValues[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    newMsbs[slot] = oldMsbs[i];
+                    newLsbs[slot] = oldLsbs[i];
+                    newValues[slot] = oldValues[i];
+                }
+            }
+            this.msbs = newMsbs;
+            this.lsbs = newLsbs;
+            this.values = newValues;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.utils;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates random UUIDs (version 4) with all 122 random bits, like {@link UUID#randomUUID()}. Every thread uses its
+ * own DRBG instance, so generation does not contend on the shared {@link SecureRandom} behind
+ * {@link UUID#randomUUID()}. Passenger IDs are the only credential of the token and result routes, so they carry no
+ * timestamp or other guessable part.
+ */
+@Component
+public class RandomIdGenerator implements IdGenerator {
+
+    private static final long VERSION_MASK = 0xF000L;
+
+    private static final long VERSION_4 = 0x4000L;
+
+    private static final long VARIANT_MASK = 0xC000000000000000L;
+
+    private static final long VARIANT_IETF = 0x8000000000000000L;
+
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(RandomIdGenerator::drbg);
+
+    @Override
+    public UUID nextId() {
+        final byte[] random = new byte[16];
+        RANDOM.get().nextBytes(random);
+        final ByteBuffer buffer = ByteBuffer.wrap(random);
+        final long msb = buffer.getLong() & ~VERSION_MASK | VERSION_4;
+        final long lsb = buffer.getLong() & ~VARIANT_MASK | VARIANT_IETF;
+        return new UUID(msb, lsb);
+    }
+
+    private static SecureRandom drbg() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
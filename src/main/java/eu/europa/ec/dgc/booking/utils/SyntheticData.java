@@ -0,0 +1,130 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.utils;
+
+import com.github.javafaker.Faker;
+import com.github.javafaker.service.FakeValuesService;
+import com.github.javafaker.service.RandomService;
+import eu.europa.ec.dgc.booking.entity.Flyweights;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Synthetic demo data. Names and ISO country codes are loaded once from the Faker data files, city names are
+ * generated once, all of them are kept in arrays, registered as {@link Flyweights} and sampled with per-thread
+ * randomness. With a seed all threads draw from one shared {@link Random} instead, so the sequence does not depend on
+ * the thread serving a request: a load test that sends its requests one after the other creates the same bookings on
+ * every run, concurrent requests interleave their draws and are not reproducible.
+ */
+@Slf4j
+@Component
+public class SyntheticData {
+
+    private final String[] firstNames;
+
+    private final String[] lastNames;
+
+    private final String[] cityNames;
+
+    private final String[] countryCodes;
+
+    private final Supplier<Random> random;
+
+    /**
+     * Constructor.
+     *
+     * @param seed seed for reproducible data, <code>null</code> for random data
+     * @param cities number of generated city names
+     */
+    public SyntheticData(
+            @Value("${demo.synthetic-data.seed:#{null}}") final Long seed,
+            @Value("${demo.synthetic-data.cities:1000}") final int cities) {
+        log.info("Configuration of synthetic data with seed '{}' and '{}' cities", seed, cities);
+        final Random poolRandom = seed != null ? new Random(seed) : new Random();
+        final FakeValuesService values = new FakeValuesService(Locale.ENGLISH, new RandomService(poolRandom));
+        this.firstNames = Stream.concat(
+                fetch(values, "name.female_first_name").stream(),
+                fetch(values, "name.male_first_name").stream())
+                .toArray(String[]::new);
+        this.lastNames = fetch(values, "name.last_name").toArray(String[]::new);
+        this.countryCodes = fetch(values, "address.country_code").toArray(String[]::new);
+
+        final Faker faker = new Faker(poolRandom);
+        this.cityNames = Stream.generate(() -> faker.address().cityName())
+                .limit(cities)
+                .toArray(String[]::new);
+        Flyweights.register(this.firstNames);
+        Flyweights.register(this.lastNames);
+        Flyweights.register(this.countryCodes);
+        Flyweights.register(this.cityNames);
+
+        if (seed != null) {
+            // Random is thread-safe, Tomcat serves consecutive requests from different worker threads
+            final Random shared = new Random(seed);
+            this.random = () -> shared;
+        } else {
+            this.random = ThreadLocalRandom::current;
+        }
+    }
+
+    public String firstName() {
+        return this.pick(this.firstNames);
+    }
+
+    public String lastName() {
+        return this.pick(this.lastNames);
+    }
+
+    public String cityName() {
+        return this.pick(this.cityNames);
+    }
+
+    public String countryCode() {
+        return this.pick(this.countryCodes);
+    }
+
+    /**
+     * Random number between 0 (inclusive) and bound (exclusive).
+     *
+     * @param bound upper bound, must be positive
+     * @return random number
+     */
+    public int nextInt(final int bound) {
+        return this.random.get().nextInt(bound);
+    }
+
+    private String pick(final String[] values) {
+        return values[this.random.get().nextInt(values.length)];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> fetch(final FakeValuesService values, final String key) {
+        return (List<String>) values.fetchObject(key);
+    }
+}
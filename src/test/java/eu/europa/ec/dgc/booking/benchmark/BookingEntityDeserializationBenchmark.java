@@ -0,0 +1,103 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.utils.RandomIdGenerator;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Read path of a stored booking. {@link #readBooking()} is what every booking read costs,
+ * {@link #randomBooking()} is the demo data that was generated on each read before the constructor became a no-op.
+ * Run with the GC profiler to see the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingEntityDeserializationBenchmark {
+
+    private ObjectMapper mapper;
+
+    private SyntheticData syntheticData;
+
+    private String json;
+
+    /**
+     * Prepares a stored booking with three passengers.
+     *
+     * @throws Exception if the booking cannot be serialized
+     */
+    @Setup
+    public void setup() throws Exception {
+        this.mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        this.syntheticData = new SyntheticData(1L, 1000);
+        final BookingEntity booking = BookingEntity.random("BENCH", this.syntheticData);
+        final RandomIdGenerator idGenerator = new RandomIdGenerator();
+        for (int i = 0; i < 3; i++) {
+            booking.addPassenger(PassengerEntity.immutable(i, idGenerator));
+        }
+        this.json = this.mapper.writeValueAsString(booking);
+    }
+
+    @Benchmark
+    public BookingEntity readBooking() throws Exception {
+        return this.mapper.readValue(this.json, BookingEntity.class);
+    }
+
+    @Benchmark
+    public BookingEntity randomBooking() {
+        return BookingEntity.random("BENCH", this.syntheticData);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookingEntityDeserializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,211 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import eu.europa.ec.dgc.booking.dto.BookingResponse;
+import eu.europa.ec.dgc.booking.dto.BookingResponse.BookingFlightInfoResponse;
+import eu.europa.ec.dgc.booking.dto.BookingResponse.BookingPassengerDccStatusResponse;
+import eu.europa.ec.dgc.booking.dto.BookingResponse.BookingPassengerDccStatusResultResponse;
+import eu.europa.ec.dgc.booking.dto.BookingResponse.BookingPassengerResponse;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
+import eu.europa.ec.dgc.booking.entity.FlightInfoEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.mapper.BookingResponseMapper;
+import eu.europa.ec.dgc.booking.mapper.BookingResponseMapperImpl;
+import eu.europa.ec.dgc.booking.mapper.BookingResponseWriter;
+import eu.europa.ec.dgc.booking.utils.RandomIdGenerator;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+/**
+ * Mapping of a booking to {@link BookingResponse}, done for every booking response. {@link #conversionService()} is
+ * the former hand-written converter called through the {@link ConversionService} like the controllers did,
+ * {@link #legacyConverter()} the same converter without the lookup and {@link #mapper()} the generated mapper.
+ * {@link #mapperJson()} and {@link #writerJson()} compare the complete rendering to JSON: mapped DTOs serialized by
+ * the {@link ObjectMapper} against the {@link BookingResponseWriter} without DTOs.
+ * Run with the GC profiler to see the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingResponseMappingBenchmark {
+
+    private BookingEntity booking;
+
+    private ConversionService conversionService;
+
+    private LegacyBookingResponseConverter legacyConverter;
+
+    private BookingResponseMapper mapper;
+
+    private ObjectMapper objectMapper;
+
+    private BookingResponseWriter writer;
+
+    /**
+     * Prepares a booking with three passengers, one of them with DCC status.
+     */
+    @Setup
+    public void setup() {
+        this.booking = BookingEntity.random("BENCH", new SyntheticData(1L, 100));
+        final RandomIdGenerator idGenerator = new RandomIdGenerator();
+        for (int i = 0; i < 3; i++) {
+            this.booking.addPassenger(PassengerEntity.immutable(i, idGenerator));
+        }
+        this.booking.getPassengers().get(0).setDccStatus(DccStatusEntity.passed());
+
+        this.legacyConverter = new LegacyBookingResponseConverter();
+        final DefaultConversionService defaultConversionService = new DefaultConversionService();
+        defaultConversionService.addConverter(this.legacyConverter);
+        this.conversionService = defaultConversionService;
+        this.mapper = new BookingResponseMapperImpl();
+        this.objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        this.writer = new BookingResponseWriter(this.objectMapper);
+    }
+
+    @Benchmark
+    public BookingResponse conversionService() {
+        return this.conversionService.convert(this.booking, BookingResponse.class);
+    }
+
+    @Benchmark
+    public BookingResponse legacyConverter() {
+        return this.legacyConverter.convert(this.booking);
+    }
+
+    @Benchmark
+    public BookingResponse mapper() {
+        return this.mapper.toBookingResponse(this.booking);
+    }
+
+    @Benchmark
+    public byte[] mapperJson() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.mapper.toBookingResponse(this.booking));
+    }
+
+    @Benchmark
+    public byte[] writerJson() {
+        return this.writer.writeAsBytes(this.booking);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookingResponseMappingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * The hand-written converter that was replaced by {@link BookingResponseMapper}.
+     */
+    static class LegacyBookingResponseConverter implements Converter<BookingEntity, BookingResponse> {
+
+        @Override
+        public BookingResponse convert(final BookingEntity entity) {
+            final BookingResponse response = new BookingResponse();
+            response.setReference(entity.getReference());
+            response.setTime(entity.getTime());
+            response.setPassengers(entity.getPassengers().stream()
+                    .map(this::convertPassenger)
+                    .collect(Collectors.toList()));
+            response.setFlightInfo(this.convertFlightInfo(entity.getFlightInfo()));
+            return response;
+        }
+
+        private BookingPassengerResponse convertPassenger(final PassengerEntity passengerEntity) {
+            final BookingPassengerResponse passengerResponse = new BookingPassengerResponse();
+            passengerResponse.setId(passengerEntity.getId());
+            passengerResponse.setForename(passengerEntity.getForename());
+            passengerResponse.setLastname(passengerEntity.getLastname());
+            passengerResponse.setBirthDate(passengerEntity.getBirthDate());
+            passengerResponse.setServiceIdUsed(passengerEntity.getServiceIdUsed());
+            passengerResponse.setJti(passengerEntity.getJti());
+
+            final DccStatusEntity dccStatusEntity = passengerEntity.getDccStatus();
+            if (dccStatusEntity != null) {
+                final BookingPassengerDccStatusResponse dccStatusResponse = new BookingPassengerDccStatusResponse();
+                dccStatusResponse.setIssuer(dccStatusEntity.getIssuer());
+                dccStatusResponse.setIat(dccStatusEntity.getIat());
+                dccStatusResponse.setSub(dccStatusEntity.getSub());
+                dccStatusResponse.setConfirmation(dccStatusEntity.getConfirmation());
+                dccStatusResponse.setResults(dccStatusEntity.getResults().stream()
+                        .map(resultEntity -> {
+                            final BookingPassengerDccStatusResultResponse resultResponse =
+                                    new BookingPassengerDccStatusResultResponse();
+                            resultResponse.setIdentifier(resultEntity.getIdentifier());
+                            resultResponse.setResult(resultEntity.getResult());
+                            resultResponse.setType(resultEntity.getType());
+                            resultResponse.setDetails(resultEntity.getDetails());
+                            return resultResponse;
+                        }).collect(Collectors.toList()));
+                passengerResponse.setDccStatus(dccStatusResponse);
+            }
+            return passengerResponse;
+        }
+
+        private BookingFlightInfoResponse convertFlightInfo(final FlightInfoEntity flightInfo) {
+            final BookingFlightInfoResponse flightInfoResponse = new BookingFlightInfoResponse();
+            flightInfoResponse.setFrom(flightInfo.getFrom());
+            flightInfoResponse.setTo(flightInfo.getTo());
+            flightInfoResponse.setTime(flightInfo.getTime());
+            flightInfoResponse.setCountryOfArrival(flightInfo.getCountryOfArrival());
+            flightInfoResponse.setCountryOfDeparture(flightInfo.getCountryOfDeparture());
+            flightInfoResponse.setRegionOfArrival(flightInfo.getRegionOfArrival());
+            flightInfoResponse.setRegionOfDeparture(flightInfo.getRegionOfDeparture());
+            flightInfoResponse.setDepartureTime(flightInfo.getDepartureTime());
+            flightInfoResponse.setArrivalTime(flightInfo.getArrivalTime());
+            flightInfoResponse.setType(flightInfo.getType());
+            flightInfoResponse.setCategories(flightInfo.getCategories());
+            flightInfoResponse.setLanguage(flightInfo.getLanguage());
+            flightInfoResponse.setConditionTypes(flightInfo.getConditionTypes());
+            return flightInfoResponse;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.benchmark;
+
+import com.github.javafaker.Faker;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.FlightInfoEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.utils.RandomIdGenerator;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Demo data of a new booking with random passengers. {@link #syntheticBooking()} samples the {@link SyntheticData}
+ * pool, {@link #fakerBooking()} is the former generation with new {@link Faker} instances for the flight and every
+ * passenger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SyntheticDataBenchmark {
+
+    private static final int PASSENGERS = 3;
+
+    private SyntheticData syntheticData;
+
+    private RandomIdGenerator idGenerator;
+
+    /**
+     * Loads the synthetic data pool.
+     */
+    @Setup
+    public void setup() {
+        this.syntheticData = new SyntheticData(1L, 1000);
+        this.idGenerator = new RandomIdGenerator();
+    }
+
+    @Benchmark
+    public BookingEntity syntheticBooking() {
+        final BookingEntity booking = BookingEntity.random("BENCH", this.syntheticData);
+        for (int i = 0; i < PASSENGERS; i++) {
+            booking.addPassenger(PassengerEntity.random(this.idGenerator, this.syntheticData));
+        }
+        return booking;
+    }
+
+    @Benchmark
+    public BookingEntity fakerBooking() {
+        final BookingEntity booking = new BookingEntity();
+        booking.setReference("BENCH");
+        booking.setFlightInfo(FlightInfoEntity.builder()
+                .from(new Faker().address().cityName())
+                .countryOfDeparture(new Faker().address().countryCode())
+                .build());
+        for (int i = 0; i < PASSENGERS; i++) {
+            final Faker faker = new Faker();
+            final PassengerEntity passenger = new PassengerEntity();
+            passenger.setForename(faker.name().firstName());
+            passenger.setLastname(faker.name().lastName());
+            booking.addPassenger(passenger);
+        }
+        return booking;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SyntheticDataBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
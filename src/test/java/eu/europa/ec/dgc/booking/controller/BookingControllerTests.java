@@ -0,0 +1,123 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * Passenger pages of POST /booking and POST /booking/replace, and the bookings POST /booking/replace deletes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void pageOfPassengers() throws Exception {
+        final String reference = "page-" + UUID.randomUUID();
+        final UUID[] ids = {UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()};
+        this.replace(new MockHttpSession(), reference, "?page=1&size=2", ids)
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "3"))
+                .andExpect(jsonPath("$.passengers.length()").value(1))
+                .andExpect(jsonPath("$.passengers[0].id").value(ids[2].toString()));
+    }
+
+    @Test
+    void invalidPageDoesNotReplaceTheBooking() throws Exception {
+        final String reference = "page-" + UUID.randomUUID();
+        final UUID kept = UUID.randomUUID();
+        final MockHttpSession session = new MockHttpSession();
+        this.replace(session, reference, "", kept).andExpect(status().isOk());
+        final String eTag = this.eTag(kept);
+
+        final UUID replacing = UUID.randomUUID();
+        for (String query : new String[] {"?size=0", "?page=-1&size=2", "?page=-1"}) {
+            this.replace(session, reference, query, replacing).andExpect(status().isBadRequest());
+            this.replace(new MockHttpSession(), reference, query, replacing).andExpect(status().isBadRequest());
+        }
+        assertEquals(eTag, this.eTag(kept));
+        this.mockMvc.perform(get("/tokencontent/" + replacing)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void replaceDeletesTheBookingsOfOtherSessionsWithTheReference() throws Exception {
+        final String reference = "replace-" + UUID.randomUUID();
+        final UUID other = UUID.randomUUID();
+        final UUID previous = UUID.randomUUID();
+        final MockHttpSession session = new MockHttpSession();
+        this.replace(new MockHttpSession(), reference, "", other).andExpect(status().isOk());
+        this.replace(session, reference, "", previous).andExpect(status().isOk());
+        this.mockMvc.perform(get("/tokencontent/" + other)).andExpect(status().isNotFound());
+
+        final UUID replacing = UUID.randomUUID();
+        this.replace(session, reference, "", replacing).andExpect(status().isOk());
+        this.mockMvc.perform(get("/tokencontent/" + previous)).andExpect(status().isNotFound());
+        this.mockMvc.perform(get("/tokencontent/" + replacing)).andExpect(status().isOk());
+    }
+
+    @Test
+    void invalidPageDoesNotCreateABooking() throws Exception {
+        final UUID passengerId = UUID.randomUUID();
+        this.mockMvc.perform(post("/booking").param("size", "0").session(new MockHttpSession())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":\"" + passengerId + "\",\"forename\":\"F\",\"lastname\":\"L\"}"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/tokencontent/" + passengerId)).andExpect(status().isNotFound());
+    }
+
+    private String eTag(final UUID passengerId) throws Exception {
+        return this.mockMvc.perform(get("/tokencontent/" + passengerId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private ResultActions replace(final MockHttpSession session, final String reference, final String query,
+            final UUID... passengerIds) throws Exception {
+        final StringBuilder passengers = new StringBuilder();
+        for (UUID passengerId : passengerIds) {
+            passengers.append(passengers.length() == 0 ? "" : ",")
+                    .append("{\"id\":\"").append(passengerId).append("\",\"forename\":\"F\",\"lastname\":\"L\"}");
+        }
+        return this.mockMvc.perform(post("/booking/replace" + query).session(session)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"reference\":\"" + reference + "\",\"flightInfo\":{\"from\":\"A\",\"to\":\"B\"},"
+                        + "\"passengers\":[" + passengers + "]}"));
+    }
+}
@@ -0,0 +1,198 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * ETag, If-None-Match and Accept-Encoding of /boardingpass and /tokencontent.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalReadTests {
+
+    private static final String RESULT = "{\"token\":\"t\",\"dccStatus\":{\"issuer\":\"i\",\"iat\":1,\"sub\":\"s\","
+            + "\"results\":[{\"identifier\":\"x\",\"result\":\"OK\",\"type\":\"T\",\"details\":\"d\"}]}}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void matchingETagIsNotModified() throws Exception {
+        final UUID passengerId = UUID.randomUUID();
+        this.replace(new MockHttpSession(), "etag-" + passengerId, passengerId);
+
+        for (String path : new String[] {"/boardingpass/" + passengerId, "/tokencontent/" + passengerId}) {
+            final String eTag = this.eTag(path);
+            this.mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag));
+            this.mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void writesChangeTheETag() throws Exception {
+        final UUID passengerId = UUID.randomUUID();
+        this.replace(new MockHttpSession(), "etag-" + passengerId, passengerId);
+        final String path = "/boardingpass/" + passengerId;
+        final String before = this.eTag(path);
+
+        this.mockMvc.perform(put("/result/" + passengerId).contentType(MediaType.APPLICATION_JSON).content(RESULT))
+                .andExpect(status().isOk());
+        final String after = this.eTag(path);
+        assertNotEquals(before, after);
+        this.mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, before)).andExpect(status().isOk());
+        this.mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, after)).andExpect(status().isNotModified());
+    }
+
+    @Test
+    void serviceIdIsNeverAnsweredFromTheClientCache() throws Exception {
+        final UUID passengerId = UUID.randomUUID();
+        this.replace(new MockHttpSession(), "etag-" + passengerId, passengerId);
+        final String path = "/tokencontent/" + passengerId;
+        final String eTag = this.eTag(path);
+
+        final String changed = this.mockMvc.perform(get(path).param("service", "service")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, changed);
+        // the same service ID again is still a write
+        final String again = this.mockMvc.perform(get(path).param("service", "service")
+                        .header(HttpHeaders.IF_NONE_MATCH, changed))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(changed, again);
+    }
+
+    @Test
+    void recreatedBookingsDoNotRepeatAVersion() throws Exception {
+        final UUID passengerId = UUID.randomUUID();
+        final String reference = "etag-" + passengerId;
+        final MockHttpSession session = new MockHttpSession();
+        this.replace(session, reference, passengerId);
+        final String path = "/tokencontent/" + passengerId;
+        final String first = this.eTag(path);
+
+        // replacing deletes the booking and creates it again, in the same and in another session
+        this.replace(session, reference, passengerId);
+        final String second = this.eTag(path);
+        this.replace(new MockHttpSession(), reference, passengerId);
+        final String third = this.eTag(path);
+
+        assertNotEquals(first, second);
+        assertNotEquals(first, third);
+        assertNotEquals(second, third);
+        this.mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, first)).andExpect(status().isOk());
+    }
+
+    @Test
+    void gzipIsSentOnlyIfAccepted() throws Exception {
+        final UUID passengerId = UUID.randomUUID();
+        this.replace(new MockHttpSession(), "etag-" + passengerId, passengerId);
+        final String path = "/boardingpass/" + passengerId;
+        final byte[] json = this.mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        for (String acceptEncoding : new String[] {"gzip;q=0", "gzip;q=0, *", "identity"}) {
+            final byte[] body = this.mockMvc.perform(get(path).header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andReturn().getResponse().getContentAsByteArray();
+            assertArrayEquals(json, body);
+        }
+        for (String acceptEncoding : new String[] {"gzip", "x-gzip", "br;q=1, gzip;q=0.5", "*"}) {
+            final byte[] body = this.mockMvc.perform(get(path).header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                    .andReturn().getResponse().getContentAsByteArray();
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                assertArrayEquals(json, in.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void gzipBodyHasItsOwnETag() throws Exception {
+        final UUID passengerId = UUID.randomUUID();
+        this.replace(new MockHttpSession(), "etag-" + passengerId, passengerId);
+        final String path = "/boardingpass/" + passengerId;
+        final String identity = this.eTag(path);
+        final String gzip = this.mockMvc.perform(get(path).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(identity.substring(0, identity.length() - 1) + "-gz\"", gzip);
+
+        // either stored body is revalidated, whatever encoding the client asks for now
+        for (String acceptEncoding : new String[] {"gzip", "identity"}) {
+            for (String eTag : new String[] {identity, gzip}) {
+                this.mockMvc.perform(get(path).header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                        .andExpect(status().isNotModified())
+                        .andExpect(header().string(HttpHeaders.ETAG, eTag));
+            }
+        }
+    }
+
+    private String eTag(final String path) throws Exception {
+        final String eTag = this.mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        assertEquals('"', eTag.charAt(0));
+        return eTag;
+    }
+
+    private void replace(final MockHttpSession session, final String reference, final UUID passengerId)
+            throws Exception {
+        this.mockMvc.perform(post("/booking/replace").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"reference\":\"" + reference + "\",\"flightInfo\":{\"from\":\"A\",\"to\":\"B\"},"
+                                + "\"passengers\":[{\"id\":\"" + passengerId + "\",\"forename\":\"F\",\"lastname\":\"L\"}]}"))
+                .andExpect(status().isOk());
+    }
+}
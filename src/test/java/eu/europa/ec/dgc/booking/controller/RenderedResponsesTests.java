@@ -0,0 +1,139 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.europa.ec.dgc.booking.dto.RenderedResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Accept-Encoding negotiation, If-None-Match and headers of {@link RenderedResponses}.
+ */
+class RenderedResponsesTests {
+
+    private static final RenderedResponse RESPONSE = new RenderedResponse(7L, new byte[] {'{', '}'}, new byte[] {1});
+
+    @ParameterizedTest
+    @ValueSource(strings = {"gzip", "GZIP", "x-gzip", "deflate, gzip", "gzip;q=0.5", "gzip ; q=1.0, br",
+        "br;q=1, gzip;q=0.001", "*", "br, *;q=0.1", "gzip;q=0, x-gzip"})
+    void acceptsGzip(final String acceptEncoding) {
+        assertTrue(RenderedResponses.acceptsGzip(acceptEncoding));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "identity", "br, deflate", "gzip;q=0", "gzip;Q=0.000", "x-gzip;q=0",
+        "gzip;q=0, *", "*;q=0", "gzip;q=none", "gzipped", "compress-gzip"})
+    void rejectsGzip(final String acceptEncoding) {
+        assertFalse(RenderedResponses.acceptsGzip(acceptEncoding));
+    }
+
+    @Test
+    void missingHeaderRejectsGzip() {
+        assertFalse(RenderedResponses.acceptsGzip(null));
+    }
+
+    @Test
+    void okSetsETagVaryAndContentEncoding() {
+        final ResponseEntity<RenderedResponse> gzip = RenderedResponses.ok(RESPONSE, this.request("br, gzip"));
+        assertEquals("\"7-gz\"", gzip.getHeaders().getETag());
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, gzip.getHeaders().getFirst(HttpHeaders.VARY));
+        assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertSame(RESPONSE, gzip.getBody());
+
+        final ResponseEntity<RenderedResponse> plain = RenderedResponses.ok(RESPONSE, this.request("gzip;q=0"));
+        assertEquals("\"7\"", plain.getHeaders().getETag());
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, plain.getHeaders().getFirst(HttpHeaders.VARY));
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void okWithoutGzipBodyIsNeverEncoded() {
+        final RenderedResponse uncompressed = new RenderedResponse(7L, new byte[] {'{', '}'}, null);
+        final ResponseEntity<RenderedResponse> entity = RenderedResponses.ok(uncompressed, this.request("gzip"));
+        assertNull(entity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"7\"", entity.getHeaders().getETag());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\"7\"", "W/\"7\"", "\"1\", \"7\"", "\"1\",\"7\""})
+    void identityETagIsNotModified(final String ifNoneMatch) {
+        final ResponseEntity<RenderedResponse> entity =
+                RenderedResponses.notModified(7L, this.conditionalRequest(ifNoneMatch, null)).orElseThrow();
+        assertEquals(HttpStatus.NOT_MODIFIED, entity.getStatusCode());
+        assertEquals("\"7\"", entity.getHeaders().getETag());
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, entity.getHeaders().getFirst(HttpHeaders.VARY));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\"7-gz\"", "W/\"7-gz\"", "\"7-br\", \"7-gz\""})
+    void gzipETagIsNotModified(final String ifNoneMatch) {
+        // the client stored the gzip body, also if it does not ask for gzip any more
+        final ResponseEntity<RenderedResponse> entity =
+                RenderedResponses.notModified(7L, this.conditionalRequest(ifNoneMatch, "identity")).orElseThrow();
+        assertEquals("\"7-gz\"", entity.getHeaders().getETag());
+    }
+
+    @Test
+    void anyETagIsNotModifiedWithTheETagOfTheAcceptedEncoding() {
+        assertEquals("\"7-gz\"", RenderedResponses.notModified(7L, this.conditionalRequest("*", "gzip"))
+                .orElseThrow().getHeaders().getETag());
+        assertEquals("\"7\"", RenderedResponses.notModified(7L, this.conditionalRequest("*", null))
+                .orElseThrow().getHeaders().getETag());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\"8\"", "\"8-gz\"", "\"7-br\"", "\"70\"", "7", ""})
+    void otherETagIsModified(final String ifNoneMatch) {
+        assertTrue(RenderedResponses.notModified(7L, this.conditionalRequest(ifNoneMatch, "gzip")).isEmpty());
+    }
+
+    @Test
+    void missingIfNoneMatchIsModified() {
+        assertTrue(RenderedResponses.notModified(7L, this.request("gzip")).isEmpty());
+    }
+
+    private ServletWebRequest conditionalRequest(final String ifNoneMatch, final String acceptEncoding) {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return new ServletWebRequest(request);
+    }
+
+    private ServletWebRequest request(final String acceptEncoding) {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return new ServletWebRequest(request);
+    }
+}
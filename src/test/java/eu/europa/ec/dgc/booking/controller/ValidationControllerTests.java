@@ -0,0 +1,157 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.controller;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.europa.ec.dgc.booking.service.DccStatusNotifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Long-poll of /validationStatus/wait: answered on the last stored result, on a complete booking, after the timeout
+ * and for unknown sessions, without leaving waiters behind.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ValidationControllerTests {
+
+    private static final String RESULT = "{\"token\":\"t\",\"dccStatus\":{\"issuer\":\"i\",\"iat\":1,\"sub\":\"s\","
+            + "\"results\":[{\"identifier\":\"x\",\"result\":\"OK\",\"type\":\"T\",\"details\":\"d\"}]}}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DccStatusNotifier notifier;
+
+    @Test
+    void waitIsAnsweredWhenTheLastResultIsStored() throws Exception {
+        final MockHttpSession session = new MockHttpSession();
+        final List<String> passengerIds = this.replace(session, 2);
+
+        final MvcResult waiting = this.mockMvc.perform(get("/validationStatus/wait").session(session))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.putResult(passengerIds.get(0));
+        assertTrue(this.notifier.hasWaiters(session.getId()));
+
+        this.putResult(passengerIds.get(1));
+        this.mockMvc.perform(asyncDispatch(waiting)).andExpect(status().isOk());
+        assertFalse(this.notifier.hasWaiters(session.getId()));
+        this.mockMvc.perform(get("/validationStatus").session(session)).andExpect(status().isOk());
+    }
+
+    @Test
+    void waitIsAnsweredAtOnceIfAllResultsAreKnown() throws Exception {
+        final MockHttpSession session = new MockHttpSession();
+        this.replace(session, 1).forEach(this::putResult);
+
+        final MvcResult waiting = this.mockMvc.perform(get("/validationStatus/wait").session(session))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(waiting)).andExpect(status().isOk());
+        assertFalse(this.notifier.hasWaiters(session.getId()));
+    }
+
+    @Test
+    void waitIsAnsweredWithNoContentAfterTheTimeout() throws Exception {
+        final MockHttpSession session = new MockHttpSession();
+        this.replace(session, 1);
+        this.mockMvc.perform(get("/validationStatus").session(session)).andExpect(status().isNoContent());
+
+        final MvcResult waiting = this.mockMvc.perform(get("/validationStatus/wait").session(session))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertTrue(this.notifier.hasWaiters(session.getId()));
+
+        // MockMvc never times out on its own, the container would call the listeners
+        final MockAsyncContext context = (MockAsyncContext) waiting.getRequest().getAsyncContext();
+        for (AsyncListener listener : new ArrayList<>(context.getListeners())) {
+            listener.onTimeout(new AsyncEvent(context));
+        }
+        this.mockMvc.perform(asyncDispatch(waiting)).andExpect(status().isNoContent());
+        for (AsyncListener listener : new ArrayList<>(context.getListeners())) {
+            listener.onComplete(new AsyncEvent(context));
+        }
+        assertFalse(this.notifier.hasWaiters(session.getId()));
+    }
+
+    @Test
+    void waitForUnknownSessionIsNotFound() throws Exception {
+        final MockHttpSession session = new MockHttpSession();
+        this.mockMvc.perform(get("/validationStatus/wait").session(session)).andExpect(status().isNotFound());
+        assertFalse(this.notifier.hasWaiters(session.getId()));
+    }
+
+    private List<String> replace(final MockHttpSession session, final int passengers) throws Exception {
+        final StringBuilder content = new StringBuilder("{\"reference\":\"validation-" + UUID.randomUUID()
+                + "\",\"flightInfo\":{\"from\":\"A\",\"to\":\"B\"},\"passengers\":[");
+        for (int i = 0; i < passengers; i++) {
+            content.append(i > 0 ? "," : "").append("{\"forename\":\"F").append(i).append("\",\"lastname\":\"L\"}");
+        }
+        content.append("]}");
+        final MvcResult result = this.mockMvc.perform(post("/booking/replace").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(content.toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+        final List<String> passengerIds = new ArrayList<>();
+        for (JsonNode passenger : this.objectMapper.readTree(result.getResponse().getContentAsString())
+                .get("passengers")) {
+            passengerIds.add(passenger.get("id").asText());
+        }
+        return passengerIds;
+    }
+
+    private void putResult(final String passengerId) {
+        try {
+            this.mockMvc.perform(put("/result/" + passengerId).contentType(MediaType.APPLICATION_JSON).content(RESULT))
+                    .andExpect(status().isOk());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
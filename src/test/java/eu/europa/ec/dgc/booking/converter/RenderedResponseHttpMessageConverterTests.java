@@ -0,0 +1,77 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.converter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.europa.ec.dgc.booking.dto.RenderedResponse;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+/**
+ * Body selection and headers of {@link RenderedResponseHttpMessageConverter}.
+ */
+class RenderedResponseHttpMessageConverterTests {
+
+    private static final byte[] JSON = "{\"reference\":\"r\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] GZIP = {0x1f, (byte) 0x8b, 8};
+
+    private final RenderedResponseHttpMessageConverter converter = new RenderedResponseHttpMessageConverter();
+
+    @Test
+    void writesJsonWithoutContentEncoding() throws Exception {
+        final MockHttpOutputMessage message = new MockHttpOutputMessage();
+        this.converter.write(new RenderedResponse(1L, JSON, GZIP), MediaType.APPLICATION_JSON, message);
+
+        assertArrayEquals(JSON, message.getBodyAsBytes());
+        assertEquals(JSON.length, message.getHeaders().getContentLength());
+        assertEquals(MediaType.APPLICATION_JSON, message.getHeaders().getContentType());
+    }
+
+    @Test
+    void writesGzipWithContentEncoding() throws Exception {
+        final MockHttpOutputMessage message = new MockHttpOutputMessage();
+        message.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        this.converter.write(new RenderedResponse(1L, JSON, GZIP), MediaType.APPLICATION_JSON, message);
+
+        assertArrayEquals(GZIP, message.getBodyAsBytes());
+        assertEquals(GZIP.length, message.getHeaders().getContentLength());
+    }
+
+    @Test
+    void isWriteOnly() {
+        assertTrue(this.converter.canWrite(RenderedResponse.class, MediaType.APPLICATION_JSON));
+        assertFalse(this.converter.canWrite(String.class, MediaType.APPLICATION_JSON));
+        assertFalse(this.converter.canRead(RenderedResponse.class, MediaType.APPLICATION_JSON));
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> this.converter.read(RenderedResponse.class, new MockHttpInputMessage(JSON)));
+    }
+}
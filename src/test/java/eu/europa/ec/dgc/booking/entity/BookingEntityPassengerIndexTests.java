@@ -0,0 +1,147 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.europa.ec.dgc.booking.utils.IdGenerator;
+import eu.europa.ec.dgc.booking.utils.RandomIdGenerator;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import java.util.Collections;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Passenger lookups and partial copies of group bookings above the passenger index threshold.
+ */
+class BookingEntityPassengerIndexTests {
+
+    private static final int GROUP_SIZE = 300;
+
+    private final IdGenerator idGenerator = new RandomIdGenerator();
+
+    private final SyntheticData syntheticData = new SyntheticData(1L, 100);
+
+    @Test
+    void passengersAreFoundInLargeGroups() {
+        final BookingEntity booking = this.group();
+        for (PassengerEntity passenger : booking.getPassengers()) {
+            assertSame(passenger, booking.getPassengerById(passenger.getId()).orElseThrow());
+        }
+        assertTrue(booking.getPassengerById(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void changedPassengerListsAreNotServedFromTheIndex() {
+        final BookingEntity booking = this.group();
+        final PassengerEntity last = booking.getPassengers().get(GROUP_SIZE - 1);
+        assertSame(last, booking.getPassengerById(last.getId()).orElseThrow());
+
+        Collections.reverse(booking.getPassengers());
+        assertSame(last, booking.getPassengerById(last.getId()).orElseThrow());
+        booking.getPassengers().remove(last);
+        assertTrue(booking.getPassengerById(last.getId()).isEmpty());
+
+        final PassengerEntity first = booking.getPassengers().get(0);
+        booking.getPassengers().set(0, last);
+        assertSame(last, booking.getPassengerById(last.getId()).orElseThrow());
+        assertTrue(booking.getPassengerById(first.getId()).isEmpty());
+
+        final BookingEntity copy = booking.copy();
+        final PassengerEntity added = PassengerEntity.random(this.idGenerator, this.syntheticData);
+        copy.addPassenger(added);
+        assertSame(added, copy.getPassengerById(added.getId()).orElseThrow());
+        assertTrue(booking.getPassengerById(added.getId()).isEmpty());
+    }
+
+    @Test
+    void indexIsRebuiltOnlyAfterThePassengerListChanged() {
+        final BookingEntity booking = this.group();
+        final PassengerEntity passenger = booking.getPassengers().get(GROUP_SIZE / 2);
+        assertSame(passenger, booking.getPassengerById(passenger.getId()).orElseThrow());
+        final Object index = positions(booking);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(booking.getPassengerById(UUID.randomUUID()).isEmpty());
+        }
+        assertSame(passenger, booking.getPassengerById(passenger.getId()).orElseThrow());
+        assertSame(index, positions(booking));
+
+        final BookingEntity copy = booking.copy();
+        assertTrue(copy.getPassengerById(UUID.randomUUID()).isEmpty());
+        assertSame(index, positions(copy));
+
+        booking.getPassengers().remove(0);
+        assertTrue(booking.getPassengerById(UUID.randomUUID()).isEmpty());
+        assertNotSame(index, positions(booking));
+    }
+
+    @Test
+    void readOnlyPassengersKeepTheIndex() {
+        final BookingEntity booking = this.group();
+        final PassengerEntity passenger = booking.getPassengers().get(GROUP_SIZE - 1);
+        assertSame(passenger, booking.getPassengerById(passenger.getId()).orElseThrow());
+        final Object index = positions(booking);
+
+        booking.makePassengersReadOnly();
+        assertThrows(UnsupportedOperationException.class, () -> booking.getPassengers().remove(0));
+        assertSame(passenger, booking.getPassengerById(passenger.getId()).orElseThrow());
+        assertTrue(booking.getPassengerById(UUID.randomUUID()).isEmpty());
+        assertSame(index, positions(booking));
+    }
+
+    @Test
+    void partialCopiesShareOrCopyOnlyWhatIsNeeded() {
+        final BookingEntity booking = this.group();
+        final PassengerEntity passenger = booking.getPassengers().get(GROUP_SIZE / 2);
+
+        final BookingEntity single = booking.copyWithPassenger(passenger.getId()).orElseThrow();
+        assertEquals(1, single.getPassengers().size());
+        assertEquals(passenger, single.getPassengers().get(0));
+        assertNotSame(passenger, single.getPassengers().get(0));
+
+        final BookingEntity changed = booking.copyForPassengerChange(passenger.getId()).orElseThrow();
+        assertNotSame(passenger, changed.getPassengerById(passenger.getId()).orElseThrow());
+        assertSame(booking.getPassengers().get(0), changed.getPassengers().get(0));
+
+        final BookingEntity page = booking.passengerPage(2, 100);
+        assertEquals(booking.getPassengers().subList(200, 300), page.getPassengers());
+        assertTrue(booking.passengerPage(3, 100).getPassengers().isEmpty());
+    }
+
+    private static Object positions(final BookingEntity booking) {
+        return ReflectionTestUtils.getField(ReflectionTestUtils.getField(booking, "passengerIndex"), "positions");
+    }
+
+    private BookingEntity group() {
+        final BookingEntity booking = BookingEntity.random("GROUP", this.syntheticData);
+        for (int i = 0; i < GROUP_SIZE; i++) {
+            booking.addPassenger(PassengerEntity.random(this.idGenerator, this.syntheticData));
+        }
+        return booking;
+    }
+}
@@ -0,0 +1,73 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Only server values are canonical {@link Flyweights}.
+ */
+class FlyweightsTests {
+
+    private final SyntheticData syntheticData = new SyntheticData(1L, 10);
+
+    @Test
+    void poolValuesAreShared() {
+        final String forename = this.syntheticData.firstName();
+        final PassengerEntity passenger = new PassengerEntity();
+        passenger.setForename(new String(forename));
+        assertSame(forename, passenger.getForename());
+
+        final String city = this.syntheticData.cityName();
+        assertSame(city, FlightInfoEntity.builder().from(new String(city)).build().getFrom());
+    }
+
+    @Test
+    void constantsAreShared() {
+        final DccStatusResultEntity passed = DccStatusResultEntity.passed();
+        final DccStatusResultEntity decoded = DccStatusResultEntity.builder()
+                .identifier(new String(passed.getIdentifier()))
+                .result(new String(passed.getResult()))
+                .build();
+        assertSame(passed.getIdentifier(), decoded.getIdentifier());
+        assertSame(passed.getResult(), decoded.getResult());
+    }
+
+    @Test
+    void requestValuesAreNeverRegistered() {
+        final String forename = "Forename " + System.nanoTime();
+        final PassengerEntity first = new PassengerEntity();
+        first.setForename(forename);
+        final PassengerEntity second = new PassengerEntity();
+        second.setForename(new String(forename));
+
+        assertSame(forename, first.getForename());
+        assertEquals(forename, second.getForename());
+        assertNotSame(first.getForename(), second.getForename());
+        assertNull(Flyweights.string(null));
+    }
+}
@@ -0,0 +1,65 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import eu.europa.ec.dgc.booking.dto.BookingRequest;
+import eu.europa.ec.dgc.booking.utils.IdGenerator;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * IDs of passengers built from a {@link BookingRequest}.
+ */
+class PassengerEntityTests {
+
+    private final AtomicInteger generated = new AtomicInteger();
+
+    private final IdGenerator idGenerator = () -> {
+        this.generated.incrementAndGet();
+        return UUID.randomUUID();
+    };
+
+    @Test
+    void passengerIdOfTheRequestIsKept() {
+        final BookingRequest request = new BookingRequest();
+        request.setId(UUID.randomUUID());
+        request.setForename("Forename");
+
+        final PassengerEntity passenger = PassengerEntity.build(request, this.idGenerator);
+        assertEquals(request.getId(), passenger.getId());
+        assertEquals("Forename", passenger.getForename());
+        assertNotNull(passenger.getJti());
+        // only the jti is generated
+        assertEquals(1, this.generated.get());
+    }
+
+    @Test
+    void missingPassengerIdIsGenerated() {
+        final PassengerEntity passenger = PassengerEntity.build(new BookingRequest(), this.idGenerator);
+        assertNotNull(passenger.getId());
+        assertNotNull(passenger.getJti());
+        assertEquals(2, this.generated.get());
+    }
+}
@@ -0,0 +1,153 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.europa.ec.dgc.booking.dto.BookingReplaceRequest;
+import eu.europa.ec.dgc.booking.dto.BookingReplaceRequest.BookingFlightInfoRequest;
+import eu.europa.ec.dgc.booking.dto.BookingReplaceRequest.PassengerRequest;
+import eu.europa.ec.dgc.booking.dto.ResultStatusRequest;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
+import eu.europa.ec.dgc.booking.entity.FlightInfoEntity;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Defaults of the generated {@link BookingRequestMapper} for values missing in the request.
+ */
+class BookingRequestMapperTests {
+
+    private static final UUID GENERATED = UUID.fromString("00000000-0000-4000-8000-000000000001");
+
+    private final BookingRequestMapperImpl mapper = new BookingRequestMapperImpl();
+
+    private final AtomicInteger generated = new AtomicInteger();
+
+    BookingRequestMapperTests() {
+        this.mapper.idGenerator = () -> {
+            this.generated.incrementAndGet();
+            return GENERATED;
+        };
+    }
+
+    @Test
+    void missingTimeIsNow() {
+        final BookingReplaceRequest request = new BookingReplaceRequest();
+        request.setReference("MAPPER");
+        final OffsetDateTime before = OffsetDateTime.now();
+
+        final BookingEntity booking = this.mapper.toBookingEntity(request);
+        assertEquals("MAPPER", booking.getReference());
+        assertNotNull(booking.getTime());
+        assertTrue(!booking.getTime().isBefore(before) && !booking.getTime().isAfter(OffsetDateTime.now()));
+        assertTrue(booking.getPassengers().isEmpty());
+        assertNull(booking.getFlightInfo());
+
+        final OffsetDateTime time = OffsetDateTime.of(2021, 6, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+        request.setTime(time);
+        assertEquals(time, this.mapper.toBookingEntity(request).getTime());
+    }
+
+    @Test
+    void missingPassengerIdIsGenerated() {
+        final UUID given = UUID.randomUUID();
+        final BookingReplaceRequest request = new BookingReplaceRequest();
+        request.setPassengers(List.of(passenger(null), passenger(given)));
+
+        final BookingEntity booking = this.mapper.toBookingEntity(request);
+        assertEquals(GENERATED, booking.getPassengers().get(0).getId());
+        assertEquals(given, booking.getPassengers().get(1).getId());
+        // the ID of the request is not overwritten, so no ID is generated for it
+        assertEquals(1, this.generated.get());
+        assertNull(booking.getPassengers().get(0).getDccStatus());
+
+        request.setPassengers(null);
+        assertTrue(this.mapper.toBookingEntity(request).getPassengers().isEmpty());
+    }
+
+    @Test
+    void missingCategoriesAndConditionTypesAreEmpty() {
+        final BookingReplaceRequest request = new BookingReplaceRequest();
+        request.setFlightInfo(new BookingFlightInfoRequest());
+        request.getFlightInfo().setFrom("A");
+
+        final FlightInfoEntity flightInfo = this.mapper.toBookingEntity(request).getFlightInfo();
+        assertEquals("A", flightInfo.getFrom());
+        assertNotNull(flightInfo.getCategories());
+        assertTrue(flightInfo.getCategories().isEmpty());
+        assertNotNull(flightInfo.getConditionTypes());
+        assertTrue(flightInfo.getConditionTypes().isEmpty());
+
+        request.getFlightInfo().setCategories(List.of("standard"));
+        assertEquals(List.of("standard"), this.mapper.toBookingEntity(request).getFlightInfo().getCategories());
+    }
+
+    @Test
+    void resultWithoutDccStatusIsEmpty() {
+        final ResultStatusRequest request = new ResultStatusRequest();
+        request.setToken("token");
+
+        final DccStatusEntity dccStatus = this.mapper.toDccStatusEntity(request);
+        assertNotNull(dccStatus);
+        assertNull(dccStatus.getIssuer());
+        assertEquals(0L, dccStatus.getIat());
+        assertNull(dccStatus.getSub());
+        assertNull(dccStatus.getConfirmation());
+        assertNotNull(dccStatus.getResults());
+        assertTrue(dccStatus.getResults().isEmpty());
+    }
+
+    @Test
+    void resultDccStatusIsMapped() {
+        final ResultStatusRequest.ResultStatusDccStatusResultRequest result =
+                new ResultStatusRequest.ResultStatusDccStatusResultRequest();
+        result.setIdentifier("x");
+        result.setResult("OK");
+        final ResultStatusRequest request = new ResultStatusRequest();
+        request.setDccStatus(new ResultStatusRequest.ResultStatusDccStatusRequest());
+        request.getDccStatus().setIssuer("issuer");
+        request.getDccStatus().setIat(42L);
+        request.getDccStatus().setResults(List.of(result));
+
+        final DccStatusEntity dccStatus = this.mapper.toDccStatusEntity(request);
+        assertEquals("issuer", dccStatus.getIssuer());
+        assertEquals(42L, dccStatus.getIat());
+        assertEquals(1, dccStatus.getResults().size());
+        assertEquals("OK", dccStatus.getResults().get(0).getResult());
+    }
+
+    private static PassengerRequest passenger(final UUID id) {
+        final PassengerRequest passenger = new PassengerRequest();
+        passenger.setId(id);
+        passenger.setForename("F");
+        passenger.setLastname("L");
+        return passenger;
+    }
+}
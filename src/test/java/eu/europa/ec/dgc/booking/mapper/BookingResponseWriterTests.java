@@ -0,0 +1,105 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.booking.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusResultEntity;
+import eu.europa.ec.dgc.booking.entity.FlightInfoEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.utils.RandomIdGenerator;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * The {@link BookingResponseWriter} must write exactly what the {@link ObjectMapper} writes for the mapped
+ * response.
+ */
+@SpringBootTest
+class BookingResponseWriterTests {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingResponseMapper responseMapper;
+
+    @Autowired
+    private BookingResponseWriter responseWriter;
+
+    @Autowired
+    private SyntheticData syntheticData;
+
+    @Test
+    void randomBooking() throws Exception {
+        final BookingEntity booking = BookingEntity.random("WRITER", this.syntheticData);
+        final RandomIdGenerator idGenerator = new RandomIdGenerator();
+        for (int i = 0; i < 3; i++) {
+            booking.addPassenger(PassengerEntity.immutable(i, idGenerator));
+        }
+        booking.getPassengers().get(0).setDccStatus(DccStatusEntity.passed());
+        booking.getPassengers().get(1).setDccStatus(DccStatusEntity.empty());
+        booking.getPassengers().get(2).setServiceIdUsed("service \"quoted\" äöü");
+        this.assertSameJson(booking);
+    }
+
+    @Test
+    void emptyBooking() throws Exception {
+        this.assertSameJson(new BookingEntity());
+    }
+
+    @Test
+    void nullValues() throws Exception {
+        final BookingEntity booking = new BookingEntity();
+        booking.setTime(OffsetDateTime.of(2021, 12, 24, 18, 30, 0, 0, ZoneOffset.ofHours(2)));
+        booking.setFlightInfo(FlightInfoEntity.builder()
+                .categories(null)
+                .conditionTypes(Arrays.asList("r", null))
+                .language(null)
+                .build());
+        final PassengerEntity passenger = new PassengerEntity();
+        passenger.setDccStatus(DccStatusEntity.builder()
+                .results(Arrays.asList(DccStatusResultEntity.builder().build()))
+                .build());
+        booking.addPassenger(passenger);
+        booking.addPassenger(new PassengerEntity());
+        booking.getPassengers().get(1).setDccStatus(DccStatusEntity.builder().results(null).build());
+        this.assertSameJson(booking);
+    }
+
+    private void assertSameJson(final BookingEntity booking) throws Exception {
+        final byte[] expected = this.objectMapper.writeValueAsBytes(this.responseMapper.toBookingResponse(booking));
+        final byte[] actual = this.responseWriter.writeAsBytes(booking);
+        assertEquals(new String(expected, StandardCharsets.UTF_8), new String(actual, StandardCharsets.UTF_8));
+        assertArrayEquals(expected, actual);
+    }
+}
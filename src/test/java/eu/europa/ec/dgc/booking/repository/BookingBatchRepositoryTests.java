@@ -0,0 +1,106 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.repository;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import eu.europa.ec.dgc.booking.entity.BookingH2Entity;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * JDBC batch insert of {@link BookingBatchRepositoryImpl}.
+ */
+@SpringBootTest
+class BookingBatchRepositoryTests {
+
+    @Autowired
+    private BookingH2Repository repository;
+
+    @Test
+    void insertAll() {
+        final Instant savedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        final BookingH2Entity first = row("first", savedAt, 1L);
+        final BookingH2Entity second = row(null, savedAt, 2L);
+        try {
+            this.repository.insertAll(List.of(first, second));
+
+            for (BookingH2Entity expected : List.of(first, second)) {
+                final BookingH2Entity found = this.repository.findById(expected.getSessionId()).orElseThrow();
+                assertEquals(expected.getReference(), found.getReference());
+                assertArrayEquals(expected.getBookingData(), found.getBookingData());
+                assertEquals(savedAt, found.getSavedAt());
+                assertEquals(expected.getPendingDcc(), found.getPendingDcc());
+                assertEquals(expected.getVersion(), found.getVersion());
+            }
+            assertEquals(List.of(first.getSessionId()),
+                    this.repository.findSessionIdsByReference(first.getReference()));
+        } finally {
+            this.delete(first, second);
+        }
+    }
+
+    @Test
+    void insertAllRejectsExistingSessionIds() {
+        final BookingH2Entity existing = row("existing", Instant.now(), 1L);
+        final BookingH2Entity other = row("other", Instant.now(), 1L);
+        try {
+            this.repository.insertAll(List.of(existing));
+            assertThrows(DataIntegrityViolationException.class,
+                    () -> this.repository.insertAll(List.of(other, existing)));
+        } finally {
+            this.delete(existing, other);
+        }
+    }
+
+    @Test
+    void insertAllWithoutRows() {
+        final long count = this.repository.count();
+        this.repository.insertAll(List.of());
+        assertEquals(count, this.repository.count());
+    }
+
+    private void delete(final BookingH2Entity... rows) {
+        this.repository.deleteAll(this.repository.findAllById(
+                Arrays.stream(rows).map(BookingH2Entity::getSessionId).collect(Collectors.toList())));
+    }
+
+    private static BookingH2Entity row(final String reference, final Instant savedAt, final long version) {
+        final BookingH2Entity row = new BookingH2Entity();
+        row.setSessionId("batch-" + UUID.randomUUID());
+        row.setReference(reference == null ? null : reference + "-" + UUID.randomUUID());
+        row.setBookingData(new byte[] {(byte) 0xB0, 0x0C, 1, 0, (byte) version});
+        row.setSavedAt(savedAt);
+        row.setPendingDcc((int) version);
+        row.setVersion(version);
+        return row;
+    }
+}
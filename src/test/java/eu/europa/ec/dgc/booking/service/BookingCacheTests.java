@@ -0,0 +1,156 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Copies handed out by the {@link BookingCache} and its invalidation by every write of the
+ * {@link BookingPersistenceService}.
+ */
+@SpringBootTest
+class BookingCacheTests {
+
+    private static final SyntheticData SYNTHETIC_DATA = new SyntheticData(1L, 10);
+
+    @Autowired
+    private BookingCache cache;
+
+    @Autowired
+    private BookingPersistenceService persistence;
+
+    private final String sessionId = UUID.randomUUID().toString();
+
+    @AfterEach
+    void tearDown() {
+        this.cache.invalidate(this.sessionId);
+        this.persistence.deleteBySessionIds(List.of(this.sessionId));
+    }
+
+    @Test
+    void getReturnsADeepCopyAndLoadsOnce() {
+        final BookingEntity stored = booking("cache-" + this.sessionId);
+        final AtomicInteger loads = new AtomicInteger();
+        final Function<String, BookingEntity> loader = id -> {
+            loads.incrementAndGet();
+            return stored;
+        };
+
+        final BookingEntity first = this.cache.get(this.sessionId, loader);
+        first.getPassengers().get(0).setForename("Changed");
+        first.getPassengers().add(new PassengerEntity());
+        final BookingEntity second = this.cache.get(this.sessionId, loader);
+
+        assertEquals(1, loads.get());
+        assertNotSame(first, second);
+        assertNotSame(stored, second);
+        assertNotSame(first.getPassengers().get(0), second.getPassengers().get(0));
+        assertEquals(1, second.getPassengers().size());
+        assertEquals("Forename", second.getPassengers().get(0).getForename());
+    }
+
+    @Test
+    void readIfPresentDoesNotCopyOrLoad() {
+        assertTrue(this.cache.readIfPresent(this.sessionId, Function.identity()).isEmpty());
+
+        final BookingEntity stored = booking("cache-" + this.sessionId);
+        this.cache.get(this.sessionId, id -> stored);
+        assertSame(stored, this.cache.readIfPresent(this.sessionId, Function.identity()).orElseThrow());
+        assertSame(stored, this.cache.read(this.sessionId, id -> null, Function.identity()));
+
+        this.cache.invalidate(this.sessionId);
+        assertTrue(this.cache.readIfPresent(this.sessionId, Function.identity()).isEmpty());
+    }
+
+    @Test
+    void saveInvalidates() {
+        this.persistence.save(this.sessionId, booking("cache-" + this.sessionId));
+        this.load();
+
+        this.persistence.save(this.sessionId, booking("cache-" + this.sessionId));
+        assertFalse(this.isCached());
+    }
+
+    @Test
+    void updateDccStatusInvalidates() {
+        final BookingEntity booking = booking("cache-" + this.sessionId);
+        this.persistence.save(this.sessionId, booking);
+        this.load();
+
+        this.persistence.updateDccStatus(booking.getPassengers().get(0).getId().toString(), DccStatusEntity.passed());
+        assertFalse(this.isCached());
+    }
+
+    @Test
+    void deleteByReferencesInvalidates() {
+        final String reference = "cache-" + this.sessionId;
+        this.persistence.save(this.sessionId, booking(reference));
+        this.load();
+
+        this.persistence.deleteByReferences(List.of(reference), List.of());
+        assertFalse(this.isCached());
+    }
+
+    @Test
+    void deleteBySessionIdsInvalidates() {
+        this.persistence.save(this.sessionId, booking("cache-" + this.sessionId));
+        this.load();
+
+        assertEquals(1, this.persistence.deleteBySessionIds(List.of(this.sessionId)));
+        assertFalse(this.isCached());
+    }
+
+    private void load() {
+        this.persistence.getBySessionId(this.sessionId);
+        assertTrue(this.isCached());
+    }
+
+    private boolean isCached() {
+        return this.cache.readIfPresent(this.sessionId, Function.identity()).isPresent();
+    }
+
+    private static BookingEntity booking(final String reference) {
+        final BookingEntity booking = BookingEntity.random(reference, SYNTHETIC_DATA);
+        final PassengerEntity passenger = new PassengerEntity();
+        passenger.setId(UUID.randomUUID());
+        passenger.setForename("Forename");
+        passenger.setLastname("Lastname");
+        booking.addPassenger(passenger);
+        return booking;
+    }
+}
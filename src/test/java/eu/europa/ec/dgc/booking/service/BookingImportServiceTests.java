@@ -0,0 +1,293 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import eu.europa.ec.dgc.booking.dto.BookingImportResult;
+import eu.europa.ec.dgc.booking.dto.BookingImportResult.Status;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.mapper.BookingRequestMapper;
+import eu.europa.ec.dgc.booking.mapper.BookingRequestMapperImpl;
+import eu.europa.ec.dgc.booking.utils.RandomIdGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Batching, read-ahead, line handling and results of {@link BookingImportService}, written to a mocked
+ * {@link BookingPersistenceService}.
+ */
+class BookingImportServiceTests {
+
+    private static final int BATCH_SIZE = 2;
+
+    private static final int MAX_IN_FLIGHT = 1;
+
+    private static final int MAX_LINE_LENGTH = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final BookingPersistenceService persistence = mock(BookingPersistenceService.class);
+
+    // bookings of every replaceAll call, in call order
+    private final List<Map<String, BookingEntity>> batches = new CopyOnWriteArrayList<>();
+
+    private final BookingImportService importService;
+
+    BookingImportServiceTests() {
+        final BookingRequestMapper requestMapper = new BookingRequestMapperImpl();
+        ReflectionTestUtils.setField(requestMapper, "idGenerator", new RandomIdGenerator());
+        this.importService = new BookingImportService(BATCH_SIZE, 4, MAX_IN_FLIGHT, MAX_LINE_LENGTH,
+                this.persistence, requestMapper, new RandomIdGenerator(),
+                Validation.buildDefaultValidatorFactory().getValidator(), this.objectMapper);
+        this.onReplaceAll(bookings -> { });
+    }
+
+    @AfterEach
+    void shutdown() {
+        this.importService.shutdown();
+    }
+
+    @Test
+    void readAheadIsBoundedAndBatchesAreWrittenInInputOrder() throws Exception {
+        final List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            lines.add(booking("R" + i, UUID.randomUUID()) + "\n");
+        }
+        final LineStream input = new LineStream(lines);
+        final List<Integer> linesReadAtWrite = new ArrayList<>();
+        this.onReplaceAll(bookings -> linesReadAtWrite.add(input.linesRead.get()));
+
+        final List<BookingImportResult> results = this.importBookings(input);
+
+        assertEquals(40 / BATCH_SIZE, this.batches.size());
+        for (int k = 0; k < linesReadAtWrite.size(); k++) {
+            // the written batch, the batches in flight and the line the reader may have started
+            final int bound = (k + MAX_IN_FLIGHT + 1) * BATCH_SIZE + 1;
+            assertTrue(linesReadAtWrite.get(k) <= bound,
+                    String.format("%d lines read before batch %d was written", linesReadAtWrite.get(k), k));
+        }
+        final List<String> written = this.batches.stream()
+                .flatMap(bookings -> bookings.values().stream())
+                .map(BookingEntity::getReference)
+                .collect(Collectors.toList());
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            expected.add("R" + i);
+            assertEquals(i + 1, results.get(i).getLine());
+            assertEquals(Status.IMPORTED, results.get(i).getStatus());
+            assertEquals("R" + i, results.get(i).getReference());
+        }
+        assertEquals(expected, written);
+    }
+
+    @Test
+    void linesAreSplitAtLineFeedsAndLimited() throws Exception {
+        final String exactlyMaxLength = pad(booking("EXACT", UUID.randomUUID()), MAX_LINE_LENGTH);
+        final String tooLong = pad(booking("LONG", UUID.randomUUID()), MAX_LINE_LENGTH + 1);
+        final List<BookingImportResult> results = this.importBookings(new LineStream(List.of(
+                booking("CRLF", UUID.randomUUID()) + "\r\n",
+                "  \t\r\n",
+                "\n",
+                exactlyMaxLength + "\r\n",
+                tooLong + "\r\n",
+                booking("LAST", UUID.randomUUID()))));
+
+        assertEquals(List.of(1L, 4L, 5L, 6L), results.stream().map(BookingImportResult::getLine)
+                .collect(Collectors.toList()));
+        assertEquals(Status.IMPORTED, results.get(0).getStatus());
+        assertEquals("CRLF", results.get(0).getReference());
+        // the carriage return does not count towards the length
+        assertEquals(Status.IMPORTED, results.get(1).getStatus());
+        assertEquals("EXACT", results.get(1).getReference());
+        assertEquals(Status.INVALID, results.get(2).getStatus());
+        assertNull(results.get(2).getReference());
+        assertEquals(List.of("Line is longer than " + MAX_LINE_LENGTH + " characters"), results.get(2).getErrors());
+        // the last line has no line feed
+        assertEquals(Status.IMPORTED, results.get(3).getStatus());
+        assertEquals("LAST", results.get(3).getReference());
+    }
+
+    @Test
+    void invalidLinesAreReportedAndSkipped() throws Exception {
+        final List<BookingImportResult> results = this.importBookings(new LineStream(List.of(
+                "{\"reference\":\" \"}\n",
+                "null\n",
+                "{\"reference\":\n",
+                "{\"reference\":\"A\"} {}\n",
+                booking("VALID", UUID.randomUUID()) + "\n")));
+
+        assertEquals(5, results.size());
+        assertEquals(List.of("reference must not be blank"), results.get(0).getErrors());
+        assertEquals(List.of("Line is no booking"), results.get(1).getErrors());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Status.INVALID, results.get(i).getStatus());
+            assertEquals(1, results.get(i).getErrors().size());
+        }
+        assertEquals(Status.IMPORTED, results.get(4).getStatus());
+        assertEquals(List.of("VALID"), this.batches.stream()
+                .flatMap(bookings -> bookings.values().stream())
+                .map(BookingEntity::getReference)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void lastLineOfAReferenceInABatchWins() throws Exception {
+        final UUID first = UUID.randomUUID();
+        final UUID last = UUID.randomUUID();
+        final List<BookingImportResult> results = this.importBookings(new LineStream(List.of(
+                booking("TWICE", first) + "\n",
+                booking("TWICE", last) + "\n")));
+
+        assertEquals(1, this.batches.size());
+        final List<BookingEntity> written = new ArrayList<>(this.batches.get(0).values());
+        assertEquals(1, written.size());
+        assertEquals(last, written.get(0).getPassengers().get(0).getId());
+        // the dropped line was replaced by the later one, as if both were imported one after another
+        assertEquals(List.of(Status.IMPORTED, Status.IMPORTED), results.stream().map(BookingImportResult::getStatus)
+                .collect(Collectors.toList()));
+        assertEquals(List.of("TWICE", "TWICE"), results.stream().map(BookingImportResult::getReference)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void failedBatchDoesNotStopTheImport() throws Exception {
+        this.onReplaceAll(bookings -> {
+            if (bookings.values().stream().anyMatch(booking -> booking.getReference().equals("FAIL"))) {
+                throw new IllegalStateException("Write failed");
+            }
+        });
+        final List<BookingImportResult> results = this.importBookings(new LineStream(List.of(
+                booking("BEFORE", UUID.randomUUID()) + "\n",
+                booking("BEFORE2", UUID.randomUUID()) + "\n",
+                booking("FAIL", UUID.randomUUID()) + "\n",
+                "{}\n",
+                booking("AFTER", UUID.randomUUID()) + "\n")));
+
+        assertEquals(List.of(Status.IMPORTED, Status.IMPORTED, Status.FAILED, Status.INVALID, Status.IMPORTED),
+                results.stream().map(BookingImportResult::getStatus).collect(Collectors.toList()));
+        assertEquals(List.of("Write failed"), results.get(2).getErrors());
+        assertEquals("FAIL", results.get(2).getReference());
+        assertEquals(3, this.batches.size());
+    }
+
+    private void onReplaceAll(final Consumer<Map<String, BookingEntity>> action) {
+        doAnswer(invocation -> {
+            final Map<String, BookingEntity> bookings = invocation.getArgument(0);
+            this.batches.add(bookings);
+            action.accept(bookings);
+            return null;
+        }).when(this.persistence).replaceAll(anyMap());
+    }
+
+    private List<BookingImportResult> importBookings(final InputStream input) throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        this.importService.importBookings(input, output);
+        final List<BookingImportResult> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(this.objectMapper.readValue(line, BookingImportResult.class));
+        }
+        return results;
+    }
+
+    private static String booking(final String reference, final UUID passengerId) {
+        return "{\"reference\":\"" + reference + "\",\"passengers\":[{\"id\":\"" + passengerId
+                + "\",\"forename\":\"F\",\"lastname\":\"L\"}]}";
+    }
+
+    private static String pad(final String json, final int length) {
+        final char[] spaces = new char[length - json.length()];
+        Arrays.fill(spaces, ' ');
+        return json.substring(0, json.length() - 1) + new String(spaces) + "}";
+    }
+
+    /**
+     * Hands out at most one line per read and counts the lines handed out, so the lines read ahead by the import
+     * are known.
+     */
+    private static final class LineStream extends InputStream {
+
+        private final List<byte[]> lines;
+
+        private final AtomicInteger linesRead = new AtomicInteger();
+
+        private int line;
+
+        private int position;
+
+        private LineStream(final List<String> lines) {
+            this.lines = lines.stream()
+                    .map(text -> text.getBytes(StandardCharsets.UTF_8))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public int read() {
+            final byte[] b = new byte[1];
+            return this.read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (this.line == this.lines.size()) {
+                return -1;
+            }
+            if (this.position == 0) {
+                this.linesRead.incrementAndGet();
+            }
+            final byte[] current = this.lines.get(this.line);
+            final int n = Math.min(len, current.length - this.position);
+            System.arraycopy(current, this.position, b, off, n);
+            this.position += n;
+            if (this.position == current.length) {
+                this.line++;
+                this.position = 0;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Ordering, re-entry, back pressure, error handling and shutdown of the {@link BookingMutationExecutor} lanes. All
+ * tests use one lane, so every session maps to lane "0".
+ */
+class BookingMutationExecutorTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final BookingMutationExecutor executor = new BookingMutationExecutor(1, 3, this.registry);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        this.release.countDown();
+        this.executor.shutdown();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void mutationsOfOneSessionRunInSubmissionOrderOnOneThread() throws Exception {
+        this.blockLane();
+        final List<String> runs = Collections.synchronizedList(new ArrayList<>());
+        final List<CompletableFuture<Void>> callers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final String name = "mutation-" + i;
+            callers.add(CompletableFuture.runAsync(() -> this.executor.execute("session", () -> {
+                runs.add(name + "@" + Thread.currentThread().getName());
+                return null;
+            })));
+            this.awaitQueued(i + 1);
+        }
+
+        this.release.countDown();
+        CompletableFuture.allOf(callers.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        assertEquals(List.of("mutation-0@booking-lane-0", "mutation-1@booking-lane-0", "mutation-2@booking-lane-0"),
+                runs);
+    }
+
+    @Test
+    void mutationOnTheLaneOfItsSessionRunsDirectly() {
+        final String thread = assertTimeoutPreemptively(TIMEOUT, () -> this.executor.execute("session",
+                () -> this.executor.execute("other", () -> Thread.currentThread().getName())));
+        assertEquals("booking-lane-0", thread);
+    }
+
+    @Test
+    void fullQueueIsRejectedWithServiceUnavailable() throws Exception {
+        this.blockLane();
+        final List<CompletableFuture<String>> queued = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            queued.add(CompletableFuture.supplyAsync(() -> this.executor.execute("session", () -> "done")));
+            this.awaitQueued(i + 1);
+        }
+
+        final ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> this.executor.execute("session", () -> "rejected"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatus());
+
+        this.release.countDown();
+        for (CompletableFuture<String> future : queued) {
+            assertEquals("done", future.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void runtimeExceptionOfTheMutationIsRethrownUnchanged() {
+        final IllegalArgumentException failure = new IllegalArgumentException("failed");
+        assertSame(failure, assertThrows(IllegalArgumentException.class,
+                () -> this.executor.execute("session", () -> {
+                    throw failure;
+                })));
+    }
+
+    @Test
+    void errorOfTheMutationIsWrapped() {
+        final Error failure = new Error("failed");
+        final IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> this.executor.execute("session", () -> {
+                    throw failure;
+                }));
+        assertSame(failure, thrown.getCause());
+    }
+
+    @Test
+    void shutdownRunsQueuedMutationsAndRejectsNewOnes() throws Exception {
+        this.blockLane();
+        final CompletableFuture<String> queued =
+                CompletableFuture.supplyAsync(() -> this.executor.execute("session", () -> "done"));
+        this.awaitQueued(1);
+
+        this.executor.shutdown();
+        final ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> this.executor.execute("session", () -> "rejected"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatus());
+
+        this.release.countDown();
+        assertEquals("done", queued.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void requestAttributesOfTheCallerReachTheLane() {
+        final RequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(attributes);
+        assertSame(attributes, this.executor.execute("session", RequestContextHolder::getRequestAttributes));
+
+        // the lane thread does not keep the attributes of an earlier caller
+        RequestContextHolder.resetRequestAttributes();
+        assertNull(this.executor.execute("session", RequestContextHolder::getRequestAttributes));
+    }
+
+    /**
+     * Starts a mutation that occupies the lane until {@link #release} is counted down.
+     */
+    private void blockLane() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture.runAsync(() -> this.executor.execute("blocker", () -> {
+            started.countDown();
+            try {
+                return this.release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+    }
+
+    private void awaitQueued(final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (this.registry.get("executor.queued").tag("lane", "0").gauge().value() < count) {
+            assertTrue(System.nanoTime() < deadline, "Mutations were not queued in time");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.exception.BookingNotFoundException;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Bookings of other sessions are deleted by reference on the lanes of their sessions.
+ */
+@SpringBootTest
+class BookingPersistenceServiceTests {
+
+    private static final SyntheticData SYNTHETIC_DATA = new SyntheticData(1L, 10);
+
+    @Autowired
+    private BookingPersistenceService persistence;
+
+    @Autowired
+    private BookingMutationExecutor mutations;
+
+    private final String reference = "lanes-" + UUID.randomUUID();
+
+    private final String ownerSessionId = UUID.randomUUID().toString();
+
+    private final String sessionId = UUID.randomUUID().toString();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        this.release.countDown();
+        this.persistence.deleteBySessionIds(List.of(this.ownerSessionId, this.sessionId));
+    }
+
+    @Test
+    void deleteByReferencesWaitsForTheLaneOfTheOwner() throws Exception {
+        this.persistence.save(this.ownerSessionId, booking(this.reference));
+        this.persistence.save(this.sessionId, booking(this.reference));
+        this.blockLane(this.ownerSessionId);
+
+        final CompletableFuture<Void> delete = CompletableFuture.runAsync(
+                () -> this.persistence.deleteByReferences(List.of(this.reference), List.of(this.sessionId)));
+        this.assertWaiting(delete);
+
+        this.release.countDown();
+        delete.get(10, TimeUnit.SECONDS);
+        assertThrows(BookingNotFoundException.class, () -> this.persistence.countPendingDcc(this.ownerSessionId));
+        assertEquals(1, this.persistence.countPendingDcc(this.sessionId));
+    }
+
+    @Test
+    void replaceAllDeletesOnTheLaneOfTheOwner() throws Exception {
+        this.persistence.save(this.ownerSessionId, booking(this.reference));
+        this.blockLane(this.ownerSessionId);
+
+        final CompletableFuture<Void> replace = CompletableFuture.runAsync(
+                () -> this.persistence.replaceAll(Map.of(this.sessionId, booking(this.reference))));
+        this.assertWaiting(replace);
+
+        this.release.countDown();
+        replace.get(10, TimeUnit.SECONDS);
+        assertThrows(BookingNotFoundException.class, () -> this.persistence.countPendingDcc(this.ownerSessionId));
+        assertEquals(this.sessionId, this.persistence.getSessionIdByReference(this.reference).orElseThrow());
+    }
+
+    /**
+     * Occupies the lane of the session until {@link #release} is counted down.
+     */
+    private void blockLane(final String sessionId) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture.runAsync(() -> this.mutations.execute(sessionId, () -> {
+            started.countDown();
+            try {
+                return this.release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Checks that the deletion waits for the blocked lane and has not deleted the booking of the owner yet. The
+     * bookings are checked in the store, the unit of work of the test request would keep a booking it has read.
+     */
+    private void assertWaiting(final CompletableFuture<Void> deletion) throws InterruptedException {
+        Thread.sleep(200);
+        assertFalse(deletion.isDone());
+        assertEquals(1, this.persistence.countPendingDcc(this.ownerSessionId));
+    }
+
+    private static BookingEntity booking(final String reference) {
+        final BookingEntity booking = BookingEntity.random(reference, SYNTHETIC_DATA);
+        final PassengerEntity passenger = new PassengerEntity();
+        passenger.setId(UUID.randomUUID());
+        passenger.setForename("Forename");
+        passenger.setLastname("Lastname");
+        booking.addPassenger(passenger);
+        return booking;
+    }
+}
@@ -0,0 +1,109 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.exception.BookingNotFoundException;
+import eu.europa.ec.dgc.booking.store.BookingStore;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import javax.servlet.http.HttpSessionEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+
+/**
+ * Bookings of destroyed sessions are purged by the {@link BookingSweeper}, preset bookings survive the purge of their
+ * session and the TTL.
+ */
+@SpringBootTest
+class BookingSessionListenerTests {
+
+    private static final SyntheticData SYNTHETIC_DATA = new SyntheticData(1L, 10);
+
+    @Autowired
+    private BookingSessionListener listener;
+
+    @Autowired
+    private BookingSweeper sweeper;
+
+    @Autowired
+    private BookingPersistenceService persistence;
+
+    private final MockHttpSession session = new MockHttpSession();
+
+    private final MockHttpSession presetSession = new MockHttpSession();
+
+    private final String presetReference = BookingStore.PRESET_PREFIX + "-listener-" + UUID.randomUUID();
+
+    @AfterEach
+    void tearDown() {
+        this.persistence.deleteByReferences(List.of(this.presetReference), List.of());
+        this.persistence.deleteBySessionIds(List.of(this.session.getId()));
+    }
+
+    @Test
+    void bookingOfADestroyedSessionIsPurgedAndAPresetIsKept() {
+        this.persistence.save(this.session.getId(), booking("listener-" + UUID.randomUUID()));
+        this.persistence.save(this.presetSession.getId(), booking(this.presetReference));
+
+        this.listener.sessionDestroyed(new HttpSessionEvent(this.session));
+        this.listener.sessionDestroyed(new HttpSessionEvent(this.presetSession));
+        this.sweeper.sweep();
+
+        assertThrows(BookingNotFoundException.class, () -> this.persistence.getBySessionId(this.session.getId()));
+        assertEquals(this.presetReference,
+                this.persistence.getBySessionId(this.presetSession.getId()).getReference());
+        assertEquals(this.presetSession.getId(),
+                this.persistence.getSessionIdByReference(this.presetReference).orElseThrow());
+    }
+
+    @Test
+    void presetIsKeptWhenItExpires() {
+        this.persistence.save(this.presetSession.getId(), booking(this.presetReference));
+        this.persistence.save(this.session.getId(), booking("listener-" + UUID.randomUUID()));
+
+        // every booking saved before the run is expired
+        new BookingSweeper(this.persistence, 0, 500, 20, 10, new SimpleMeterRegistry()).sweep();
+
+        assertThrows(BookingNotFoundException.class, () -> this.persistence.getBySessionId(this.session.getId()));
+        assertEquals(this.presetReference,
+                this.persistence.getBySessionId(this.presetSession.getId()).getReference());
+    }
+
+    private static BookingEntity booking(final String reference) {
+        final BookingEntity booking = BookingEntity.random(reference, SYNTHETIC_DATA);
+        final PassengerEntity passenger = new PassengerEntity();
+        passenger.setId(UUID.randomUUID());
+        passenger.setForename("Forename");
+        passenger.setLastname("Lastname");
+        booking.addPassenger(passenger);
+        return booking;
+    }
+}
@@ -0,0 +1,153 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Batching, TTL cutoff and metrics of the {@link BookingSweeper}, purging through a mocked
+ * {@link BookingPersistenceService}. That preset bookings survive both purge paths is covered by
+ * {@link BookingSessionListenerTests}.
+ */
+class BookingSweeperTests {
+
+    private static final long TTL_SECONDS = 3600;
+
+    private static final int BATCH_SIZE = 2;
+
+    private static final int MAX_BATCHES = 2;
+
+    private static final int QUEUE_CAPACITY = 5;
+
+    private final BookingPersistenceService persistence = mock(BookingPersistenceService.class);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final BookingSweeper sweeper = new BookingSweeper(this.persistence, TTL_SECONDS, BATCH_SIZE,
+            MAX_BATCHES, QUEUE_CAPACITY, this.registry);
+
+    // session IDs of every deleteBySessionIds call, copied because the sweeper reuses the batch list
+    private final List<List<String>> deletedBatches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(this.persistence.deleteBySessionIds(anyCollection())).thenAnswer(invocation -> {
+            final Collection<String> sessionIds = invocation.getArgument(0);
+            this.deletedBatches.add(new ArrayList<>(sessionIds));
+            return sessionIds.size();
+        });
+    }
+
+    @Test
+    void endedSessionsArePurgedInBoundedBatches() {
+        for (int i = 0; i < QUEUE_CAPACITY; i++) {
+            this.sweeper.sessionEnded("session-" + i);
+        }
+        this.sweeper.sweep();
+        assertEquals(List.of(List.of("session-0", "session-1"), List.of("session-2", "session-3")),
+                this.deletedBatches);
+
+        // the rest is left for the next run
+        this.deletedBatches.clear();
+        this.sweeper.sweep();
+        assertEquals(List.of(List.of("session-4")), this.deletedBatches);
+
+        this.deletedBatches.clear();
+        this.sweeper.sweep();
+        assertTrue(this.deletedBatches.isEmpty());
+    }
+
+    @Test
+    void sessionsBeyondTheQueueCapacityAreDropped() {
+        for (int i = 0; i <= QUEUE_CAPACITY; i++) {
+            this.sweeper.sessionEnded("session-" + i);
+        }
+        assertEquals(QUEUE_CAPACITY, this.registry.get("booking.sweeper.queue").gauge().value());
+
+        this.sweeper.sweep();
+        this.sweeper.sweep();
+        assertTrue(this.deletedBatches.stream().noneMatch(batch -> batch.contains("session-" + QUEUE_CAPACITY)));
+        assertEquals(0, this.registry.get("booking.sweeper.queue").gauge().value());
+    }
+
+    @Test
+    void expiredBookingsArePurgedWithTheTtlCutoff() {
+        final List<Instant> cutoffs = new ArrayList<>();
+        when(this.persistence.deleteExpired(any(), anyInt())).thenAnswer(invocation -> {
+            cutoffs.add(invocation.getArgument(0));
+            return cutoffs.size() == 1 ? BATCH_SIZE : 1;
+        });
+
+        final Instant before = Instant.now().minusSeconds(TTL_SECONDS);
+        this.sweeper.sweep();
+        final Instant after = Instant.now().minusSeconds(TTL_SECONDS);
+
+        // a full batch is followed by another one, a partial batch ends the run
+        assertEquals(2, cutoffs.size());
+        assertEquals(cutoffs.get(0), cutoffs.get(1));
+        assertTrue(!cutoffs.get(0).isBefore(before) && !cutoffs.get(0).isAfter(after));
+        verify(this.persistence, never()).deleteBySessionIds(anyCollection());
+    }
+
+    @Test
+    void expiredBookingsArePurgedInAtMostMaxBatches() {
+        final List<Integer> limits = new ArrayList<>();
+        when(this.persistence.deleteExpired(any(), anyInt())).thenAnswer(invocation -> {
+            limits.add(invocation.getArgument(1));
+            return BATCH_SIZE;
+        });
+
+        this.sweeper.sweep();
+        assertEquals(List.of(BATCH_SIZE, BATCH_SIZE), limits);
+    }
+
+    @Test
+    void runsArePublishedAsMetrics() {
+        when(this.persistence.count()).thenReturn(42L);
+        when(this.persistence.deleteExpired(any(), anyInt())).thenReturn(1);
+        this.sweeper.sessionEnded("session");
+
+        this.sweeper.sweep();
+        this.sweeper.sweep();
+
+        assertEquals(42, this.registry.get("booking.store.bookings").gauge().value());
+        assertEquals(2, this.registry.get("booking.sweeper.purged").summary().count());
+        // the first run purges the ended session and one expired booking, the second one expired booking
+        assertEquals(3, this.registry.get("booking.sweeper.purged").summary().totalAmount());
+        assertEquals(2, this.registry.get("booking.sweeper.duration").timer().count());
+    }
+}
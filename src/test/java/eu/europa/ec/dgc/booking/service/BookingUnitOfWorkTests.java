@@ -0,0 +1,156 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import eu.europa.ec.dgc.booking.dto.ResultStatusRequest;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.store.BookingStore;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Bookings are loaded at most once per request by the {@link BookingUnitOfWork}, also by mutations on the lanes,
+ * and nothing is kept beyond the request.
+ */
+@SpringBootTest
+class BookingUnitOfWorkTests {
+
+    @SpyBean
+    private BookingStore store;
+
+    @Autowired
+    private BookingUnitOfWork unitOfWork;
+
+    @Autowired
+    private BookingPersistenceService persistence;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingResponseRenderer renderer;
+
+    @Autowired
+    private BookingMutationExecutor mutations;
+
+    private final String sessionId = UUID.randomUUID().toString();
+
+    private final UUID passengerId = UUID.randomUUID();
+
+    private ServletRequestAttributes request;
+
+    @BeforeEach
+    void setUp() {
+        final BookingEntity booking = BookingEntity.random("uow-" + this.sessionId, new SyntheticData(1L, 10));
+        final PassengerEntity passenger = new PassengerEntity();
+        passenger.setId(this.passengerId);
+        passenger.setForename("Forename");
+        passenger.setLastname("Lastname");
+        booking.addPassenger(passenger);
+        this.persistence.save(this.sessionId, booking);
+        clearInvocations(this.store);
+        this.request = this.startRequest();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.endRequest(this.request);
+        this.persistence.deleteBySessionIds(List.of(this.sessionId));
+    }
+
+    @Test
+    void tokenContentAndResultInOneRequestLoadTheBookingOncePerWrite() {
+        // the service ID is stored on the lane, the booking loaded there is kept for the request thread
+        this.renderer.tokenContent(this.passengerId.toString(), "service");
+        this.bookingService.getByPassengerId(this.passengerId.toString());
+        this.bookingService.getByPassengerId(this.passengerId.toString());
+        verify(this.store, times(1)).findBySessionId(this.sessionId);
+
+        // the result evicts the booking, it is loaded again once
+        this.bookingService.updateResult(this.passengerId.toString(), new ResultStatusRequest());
+        this.bookingService.getByPassengerId(this.passengerId.toString());
+        this.bookingService.getByPassengerId(this.passengerId.toString());
+        verify(this.store, times(2)).findBySessionId(this.sessionId);
+    }
+
+    @Test
+    void requestAttributesReachTheLanes() {
+        final BookingEntity loaded = this.persistence.getBySessionId(this.sessionId);
+
+        final BookingEntity onLane = this.mutations.execute(this.sessionId,
+                () -> this.unitOfWork.getBooking(this.sessionId).orElseThrow());
+        assertEquals(loaded.getVersion(), onLane.getVersion());
+        assertNotSame(loaded, onLane);
+        verify(this.store, times(1)).findBySessionId(this.sessionId);
+    }
+
+    @Test
+    void stateIsClearedAtTheEndOfTheRequest() {
+        this.persistence.getBySessionId(this.sessionId);
+        this.persistence.getSessionIdByPassengerId(this.passengerId);
+        assertTrue(this.unitOfWork.getBooking(this.sessionId).isPresent());
+
+        this.endRequest(this.request);
+        assertTrue(this.unitOfWork.getBooking(this.sessionId).isEmpty());
+        this.unitOfWork.putSessionId(this.passengerId, this.sessionId);
+        assertTrue(this.unitOfWork.getSessionId(this.passengerId).isEmpty());
+
+        this.request = this.startRequest();
+        assertTrue(this.unitOfWork.getBooking(this.sessionId).isEmpty());
+        assertTrue(this.unitOfWork.getSessionId(this.passengerId).isEmpty());
+    }
+
+    @Test
+    void completedRequestKeepsNothing() {
+        this.request.requestCompleted();
+        this.persistence.getBySessionId(this.sessionId);
+        assertTrue(this.unitOfWork.getBooking(this.sessionId).isEmpty());
+    }
+
+    private ServletRequestAttributes startRequest() {
+        final ServletRequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(attributes);
+        return attributes;
+    }
+
+    private void endRequest(final ServletRequestAttributes attributes) {
+        attributes.requestCompleted();
+        RequestContextHolder.resetRequestAttributes();
+    }
+}
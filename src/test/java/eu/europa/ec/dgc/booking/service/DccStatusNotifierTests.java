@@ -0,0 +1,79 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Registration, completion and cleanup of {@link DccStatusNotifier} waiters.
+ */
+class DccStatusNotifierTests {
+
+    private final DccStatusNotifier notifier = new DccStatusNotifier();
+
+    @Test
+    void completeReleasesAllWaitersOfTheSession() {
+        final CompletableFuture<Void> first = this.notifier.register("session");
+        final CompletableFuture<Void> second = this.notifier.register("session");
+        final CompletableFuture<Void> other = this.notifier.register("other");
+        assertTrue(this.notifier.hasWaiters("session"));
+
+        this.notifier.complete("session");
+        assertTrue(first.isDone() && !first.isCancelled());
+        assertTrue(second.isDone() && !second.isCancelled());
+        assertFalse(this.notifier.hasWaiters("session"));
+        assertFalse(other.isDone());
+        assertTrue(this.notifier.hasWaiters("other"));
+
+        // completing a session without waiters has no effect
+        this.notifier.complete("session");
+        assertFalse(this.notifier.hasWaiters("session"));
+    }
+
+    @Test
+    void cancelledWaitersAreRemoved() {
+        final CompletableFuture<Void> timedOut = this.notifier.register("session");
+        final CompletableFuture<Void> waiting = this.notifier.register("session");
+
+        timedOut.cancel(false);
+        assertTrue(this.notifier.hasWaiters("session"));
+        waiting.cancel(false);
+        assertFalse(this.notifier.hasWaiters("session"));
+    }
+
+    @Test
+    void waitersCompletedByTheRegisteringThreadAreRemoved() {
+        // the register-then-check of BookingService completes the waiter itself if all results are known
+        final CompletableFuture<Void> waiter = this.notifier.register("session");
+        waiter.complete(null);
+        assertFalse(this.notifier.hasWaiters("session"));
+
+        // a waiter registered after the completion waits for the next one
+        final CompletableFuture<Void> late = this.notifier.register("session");
+        assertFalse(late.isDone());
+        this.notifier.complete("session");
+        assertTrue(late.isDone());
+    }
+}
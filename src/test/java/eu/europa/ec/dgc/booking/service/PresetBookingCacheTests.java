@@ -0,0 +1,135 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.store.BookingStore;
+import eu.europa.ec.dgc.booking.store.InMemoryBookingStore;
+import eu.europa.ec.dgc.booking.utils.IdGenerator;
+import eu.europa.ec.dgc.booking.utils.RandomIdGenerator;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Shared snapshots, ownership and eviction of {@link PresetBookingCache}.
+ */
+class PresetBookingCacheTests {
+
+    private static final String PRESET = BookingStore.PRESET_PREFIX + "-kiosk";
+
+    private final SyntheticData syntheticData = new SyntheticData(1L, 100);
+
+    private final IdGenerator idGenerator = new RandomIdGenerator();
+
+    private final BookingStore store = spy(new InMemoryBookingStore());
+
+    private final PresetBookingCache presets = new PresetBookingCache(this.store);
+
+    @Test
+    void readsShareOneImmutableSnapshot() {
+        this.store.save("owner", this.booking(PRESET));
+
+        final BookingEntity first = this.presets.get(PRESET).orElseThrow();
+        assertSame(first, this.presets.get(PRESET).orElseThrow());
+        assertTrue(this.presets.exists(PRESET));
+        verify(this.store, times(1)).findBySessionId("owner");
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> first.addPassenger(PassengerEntity.random(this.idGenerator, this.syntheticData)));
+        // the mutation path works on its own copy
+        final BookingEntity copy = first.copy();
+        copy.addPassenger(PassengerEntity.random(this.idGenerator, this.syntheticData));
+        assertEquals(2, first.getPassengers().size());
+        assertTrue(this.presets.get("preset-unknown").isEmpty());
+    }
+
+    @Test
+    void publishedSnapshotIsIndependentOfTheWrittenBooking() {
+        final BookingEntity written = this.booking(PRESET);
+        this.store.save("owner", written);
+        this.presets.put("owner", written);
+
+        final BookingEntity snapshot = this.presets.get(PRESET).orElseThrow();
+        assertNotSame(written, snapshot);
+        written.getPassengers().get(0).setForename("changed");
+        assertEquals(written.getPassengers().get(1).getForename(), snapshot.getPassengers().get(1).getForename());
+        assertNotEquals("changed", snapshot.getPassengers().get(0).getForename());
+        verify(this.store, times(0)).findBySessionId(anyString());
+
+        this.presets.put("other", this.booking("reference"));
+        assertTrue(this.presets.get("reference").isEmpty());
+    }
+
+    @Test
+    void onlyWritesToTheOwningSessionEvict() {
+        this.store.save("owner", this.booking(PRESET));
+        final BookingEntity snapshot = this.presets.get(PRESET).orElseThrow();
+
+        this.presets.evictSession("other");
+        assertSame(snapshot, this.presets.get(PRESET).orElseThrow());
+
+        this.presets.evictSession("owner");
+        final BookingEntity reloaded = this.presets.get(PRESET).orElseThrow();
+        assertNotSame(snapshot, reloaded);
+        verify(this.store, times(2)).findBySessionId("owner");
+    }
+
+    @Test
+    void ownershipMovesWithTheLatestWrite() {
+        this.store.save("first", this.booking(PRESET));
+        this.presets.get(PRESET).orElseThrow();
+
+        this.store.deleteByReference(PRESET);
+        this.presets.evictSession("first");
+        final BookingEntity second = this.booking(PRESET);
+        this.store.save("second", second);
+        this.presets.put("second", second);
+
+        // the former owner no longer evicts the preset
+        this.presets.evictSession("first");
+        final BookingEntity snapshot = this.presets.get(PRESET).orElseThrow();
+        assertEquals(second.getPassengers().get(0).getId(), snapshot.getPassengers().get(0).getId());
+        verify(this.store, times(0)).findBySessionId("second");
+
+        this.presets.evictSession("second");
+        assertNotSame(snapshot, this.presets.get(PRESET).orElseThrow());
+        verify(this.store, times(1)).findBySessionId("second");
+    }
+
+    private BookingEntity booking(final String reference) {
+        final BookingEntity booking = BookingEntity.random(reference, this.syntheticData);
+        booking.addPassenger(PassengerEntity.random(this.idGenerator, this.syntheticData));
+        booking.addPassenger(PassengerEntity.random(this.idGenerator, this.syntheticData));
+        return booking;
+    }
+}
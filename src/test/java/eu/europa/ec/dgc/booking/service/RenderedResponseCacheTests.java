@@ -0,0 +1,109 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.europa.ec.dgc.booking.dto.RenderedResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Version handling of {@link RenderedResponseCache}.
+ */
+class RenderedResponseCacheTests {
+
+    private static final String SESSION = "session";
+
+    private static final String TYPE = "boardingpass";
+
+    private final RenderedResponseCache cache = new RenderedResponseCache(100, 600, new SimpleMeterRegistry());
+
+    @Test
+    void getReturnsOnlyTheRequestedVersion() {
+        final RenderedResponse response = response(2L);
+        this.cache.put(SESSION, TYPE, response);
+
+        assertSame(response, this.cache.get(SESSION, 2L, TYPE).orElseThrow());
+        assertTrue(this.cache.get(SESSION, 1L, TYPE).isEmpty());
+        assertTrue(this.cache.get(SESSION, 3L, TYPE).isEmpty());
+        assertTrue(this.cache.get(SESSION, 2L, "tokencontent:p").isEmpty());
+        assertTrue(this.cache.get("other", 2L, TYPE).isEmpty());
+    }
+
+    @Test
+    void newerVersionDropsOlderResponses() {
+        this.cache.put(SESSION, TYPE, response(1L));
+        this.cache.put(SESSION, "tokencontent:p", response(1L));
+        final RenderedResponse newer = response(2L);
+        this.cache.put(SESSION, TYPE, newer);
+
+        assertSame(newer, this.cache.get(SESSION, 2L, TYPE).orElseThrow());
+        assertTrue(this.cache.get(SESSION, 1L, "tokencontent:p").isEmpty());
+        assertTrue(this.cache.get(SESSION, 2L, "tokencontent:p").isEmpty());
+    }
+
+    @Test
+    void olderVersionIsNotKept() {
+        final RenderedResponse newer = response(2L);
+        this.cache.put(SESSION, TYPE, newer);
+        this.cache.put(SESSION, TYPE, response(1L));
+        this.cache.put(SESSION, "tokencontent:p", response(1L));
+
+        assertSame(newer, this.cache.get(SESSION, 2L, TYPE).orElseThrow());
+        assertTrue(this.cache.get(SESSION, 1L, TYPE).isEmpty());
+        assertTrue(this.cache.get(SESSION, 1L, "tokencontent:p").isEmpty());
+    }
+
+    @Test
+    void invalidateDropsAllTypes() {
+        this.cache.put(SESSION, TYPE, response(1L));
+        this.cache.put(SESSION, "tokencontent:p", response(1L));
+        this.cache.invalidate(SESSION);
+
+        assertTrue(this.cache.get(SESSION, 1L, TYPE).isEmpty());
+        assertTrue(this.cache.get(SESSION, 1L, "tokencontent:p").isEmpty());
+    }
+
+    @Test
+    void stalePutAfterInvalidateIsNeverServedForTheNewVersion() {
+        // a render of version 1 finishes after the write of version 2 invalidated the session
+        this.cache.put(SESSION, TYPE, response(1L));
+        this.cache.invalidate(SESSION);
+        final RenderedResponse stale = response(1L);
+        this.cache.put(SESSION, TYPE, stale);
+
+        assertTrue(this.cache.get(SESSION, 2L, TYPE).isEmpty());
+        final RenderedResponse current = response(2L);
+        this.cache.put(SESSION, TYPE, current);
+        assertSame(current, this.cache.get(SESSION, 2L, TYPE).orElseThrow());
+        assertTrue(this.cache.get(SESSION, 1L, TYPE).isEmpty());
+        // the stale render can not replace the current one either
+        this.cache.put(SESSION, TYPE, stale);
+        assertEquals(2L, this.cache.get(SESSION, 2L, TYPE).orElseThrow().getVersion());
+    }
+
+    private static RenderedResponse response(final long version) {
+        return new RenderedResponse(version, new byte[] {'{', '}'}, null);
+    }
+}
@@ -0,0 +1,143 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.utils.RandomIdGenerator;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Header handling and round trips of {@link BookingCodec} for every format and compression setting.
+ */
+class BookingCodecTests {
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final BookingEntity booking = booking();
+
+    @ParameterizedTest
+    @CsvSource({"JSON, false", "JSON, true", "SMILE, false", "SMILE, true", "CBOR, false", "CBOR, true"})
+    void roundTrip(final BookingCodec.Format format, final boolean compress) {
+        final BookingCodec codec = new BookingCodec(this.mapper, format, compress);
+        final byte[] data = codec.encode(this.booking);
+        assertTrue(codec.isCurrent(data));
+        this.assertDecoded(codec.decode(data, BookingEntity.class));
+
+        // bookings stored with another configuration are still readable and reported for re-encoding
+        final BookingCodec other = new BookingCodec(this.mapper, BookingCodec.Format.SMILE, !compress);
+        assertFalse(other.isCurrent(data));
+        this.assertDecoded(other.decode(data, BookingEntity.class));
+
+        final PassengerEntity last = this.booking.getPassengers().get(2);
+        final BookingEntity withPassenger = codec.document(data).withPassenger(last.getId()).orElseThrow();
+        assertEquals(1, withPassenger.getPassengers().size());
+        assertEquals(last.getId(), withPassenger.getPassengers().get(0).getId());
+        assertEquals(last.getForename(), withPassenger.getPassengers().get(0).getForename());
+
+        final DccStatusEntity status = DccStatusEntity.failed();
+        assertEquals(status, codec.decode(codec.encode(status), DccStatusEntity.class));
+    }
+
+    @Test
+    void legacyJsonWithoutHeader() throws Exception {
+        final BookingCodec codec = new BookingCodec(this.mapper, BookingCodec.Format.SMILE, false);
+        final byte[] legacy = this.mapper.writeValueAsBytes(this.booking);
+        assertFalse(codec.isCurrent(legacy));
+        this.assertDecoded(codec.decode(legacy, BookingEntity.class));
+        assertEquals(this.booking.getPassengers().get(0).getId(),
+                codec.document(legacy).withFirstPassenger().getPassengers().get(0).getId());
+    }
+
+    @Test
+    void corruptHeadersAreRejected() {
+        final BookingCodec codec = new BookingCodec(this.mapper, BookingCodec.Format.SMILE, false);
+        final byte[] data = codec.encode(this.booking);
+
+        final byte[] futureVersion = data.clone();
+        futureVersion[2] = 2;
+        final IllegalArgumentException version = assertThrows(IllegalArgumentException.class,
+                () -> codec.decode(futureVersion, BookingEntity.class));
+        assertTrue(version.getMessage().contains("version 2"));
+        assertThrows(IllegalArgumentException.class, () -> codec.document(futureVersion).withFirstPassenger());
+        assertFalse(codec.isCurrent(futureVersion));
+
+        final byte[] unknownFormat = data.clone();
+        unknownFormat[3] = 0x0F;
+        final IllegalArgumentException format = assertThrows(IllegalArgumentException.class,
+                () -> codec.decode(unknownFormat, BookingEntity.class));
+        assertTrue(format.getMessage().contains("0x0F"));
+        assertThrows(IllegalArgumentException.class, () -> codec.document(unknownFormat).withFirstPassenger());
+
+        final byte[] unknownFlag = data.clone();
+        unknownFlag[3] = (byte) (unknownFlag[3] | 0x20);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(unknownFlag, BookingEntity.class));
+
+        // a header promising compression in front of uncompressed data
+        final byte[] notCompressed = data.clone();
+        notCompressed[3] = (byte) (notCompressed[3] | 0x10);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(notCompressed, BookingEntity.class));
+
+        final byte[] truncated = Arrays.copyOf(data, data.length / 2);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(truncated, BookingEntity.class));
+    }
+
+    private void assertDecoded(final BookingEntity decoded) {
+        assertEquals(this.booking.getReference(), decoded.getReference());
+        assertEquals(this.booking.getTime().toInstant(), decoded.getTime().toInstant());
+        assertEquals(this.booking.getFlightInfo().getTo(), decoded.getFlightInfo().getTo());
+        assertEquals(this.booking.getPassengers().size(), decoded.getPassengers().size());
+        for (int i = 0; i < this.booking.getPassengers().size(); i++) {
+            final PassengerEntity expected = this.booking.getPassengers().get(i);
+            final PassengerEntity actual = decoded.getPassengers().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getJti(), actual.getJti());
+            assertEquals(expected.getLastname(), actual.getLastname());
+        }
+    }
+
+    private static BookingEntity booking() {
+        final SyntheticData syntheticData = new SyntheticData(1L, 100);
+        final RandomIdGenerator idGenerator = new RandomIdGenerator();
+        final BookingEntity booking = BookingEntity.random("CODEC", syntheticData);
+        for (int i = 0; i < 3; i++) {
+            booking.addPassenger(PassengerEntity.random(idGenerator, syntheticData));
+        }
+        return booking;
+    }
+}
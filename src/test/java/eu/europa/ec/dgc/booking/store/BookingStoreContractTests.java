@@ -0,0 +1,544 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
+import eu.europa.ec.dgc.booking.entity.PassengerEntity;
+import eu.europa.ec.dgc.booking.utils.IdGenerator;
+import eu.europa.ec.dgc.booking.utils.RandomIdGenerator;
+import eu.europa.ec.dgc.booking.utils.SyntheticData;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Behaviour every {@link BookingStore} implementation must provide.
+ */
+abstract class BookingStoreContractTests {
+
+    private static final SyntheticData SYNTHETIC_DATA = new SyntheticData(1L, 100);
+
+    private final IdGenerator idGenerator = new RandomIdGenerator();
+
+    protected abstract BookingStore store();
+
+    @Test
+    void saveAndFindBySessionId() {
+        final String sessionId = this.sessionId();
+        final BookingEntity booking = this.booking(this.reference(), 2);
+        this.store().save(sessionId, booking);
+
+        final BookingEntity found = this.store().findBySessionId(sessionId).orElseThrow();
+        assertEquals(booking.getReference(), found.getReference());
+        assertEquals(booking.getTime().toInstant(), found.getTime().toInstant());
+        assertEquals(booking.getFlightInfo().getFrom(), found.getFlightInfo().getFrom());
+        assertEquals(2, found.getPassengers().size());
+        assertEquals(booking.getPassengers().get(0).getId(), found.getPassengers().get(0).getId());
+        assertEquals(booking.getPassengers().get(1).getJti(), found.getPassengers().get(1).getJti());
+        assertTrue(this.store().findBySessionId(this.sessionId()).isEmpty());
+    }
+
+    @Test
+    void findWithPassengerBySessionId() {
+        final String sessionId = this.sessionId();
+        final BookingEntity booking = this.booking(this.reference(), 20);
+        booking.getPassengers().get(0).setServiceIdUsed("service");
+        this.store().save(sessionId, booking);
+        final UUID passengerId = booking.getPassengers().get(12).getId();
+        this.store().updateDccStatus(passengerId, DccStatusEntity.failed());
+        final BookingEntity full = this.store().findBySessionId(sessionId).orElseThrow();
+
+        final BookingEntity withPassenger = this.store().findWithPassengerBySessionId(sessionId, passengerId)
+                .orElseThrow();
+        assertEquals(full.getReference(), withPassenger.getReference());
+        assertEquals(full.getTime(), withPassenger.getTime());
+        assertEquals(full.getFlightInfo(), withPassenger.getFlightInfo());
+        assertEquals(full.getVersion(), withPassenger.getVersion());
+        assertEquals(List.of(full.getPassengerById(passengerId).orElseThrow()), withPassenger.getPassengers());
+        assertEquals("FAILED", withPassenger.getPassengers().get(0).getDccStatus().getResults().get(0).getResult());
+
+        final BookingEntity withFirstPassenger = this.store().findWithFirstPassengerBySessionId(sessionId)
+                .orElseThrow();
+        assertEquals(full.getFlightInfo(), withFirstPassenger.getFlightInfo());
+        assertEquals(List.of(full.getPassengers().get(0)), withFirstPassenger.getPassengers());
+
+        assertTrue(this.store().findWithPassengerBySessionId(sessionId, UUID.randomUUID()).isEmpty());
+        assertTrue(this.store().findWithPassengerBySessionId(this.sessionId(), passengerId).isEmpty());
+        assertTrue(this.store().findWithFirstPassengerBySessionId(this.sessionId()).isEmpty());
+    }
+
+    @Test
+    void returnedBookingsAreNotShared() {
+        final String sessionId = this.sessionId();
+        final BookingEntity booking = this.booking(this.reference(), 1);
+        this.store().save(sessionId, booking);
+        booking.getPassengers().get(0).setServiceIdUsed("changed after save");
+
+        final BookingEntity found = this.store().findBySessionId(sessionId).orElseThrow();
+        found.getPassengers().get(0).setServiceIdUsed("changed after read");
+        found.getPassengers().clear();
+
+        final BookingEntity again = this.store().findBySessionId(sessionId).orElseThrow();
+        assertEquals(1, again.getPassengers().size());
+        assertNull(again.getPassengers().get(0).getServiceIdUsed());
+    }
+
+    @Test
+    void saveReplacesBookingAndPassengers() {
+        final String sessionId = this.sessionId();
+        final BookingEntity first = this.booking(this.reference(), 2);
+        this.store().save(sessionId, first);
+        final BookingEntity second = this.booking(this.reference(), 1);
+        this.store().save(sessionId, second);
+
+        assertEquals(second.getReference(), this.store().findBySessionId(sessionId).orElseThrow().getReference());
+        assertFalse(this.store().existsByReference(first.getReference()));
+        assertTrue(this.store().findSessionIdByPassengerId(first.getPassengers().get(0).getId()).isEmpty());
+        assertEquals(Optional.of(sessionId),
+                this.store().findSessionIdByPassengerId(second.getPassengers().get(0).getId()));
+    }
+
+    @Test
+    void findSessionIdByPassengerId() {
+        final String sessionId = this.sessionId();
+        final BookingEntity booking = this.booking(this.reference(), 3);
+        this.store().save(sessionId, booking);
+
+        for (PassengerEntity passenger : booking.getPassengers()) {
+            assertEquals(Optional.of(sessionId), this.store().findSessionIdByPassengerId(passenger.getId()));
+        }
+        assertTrue(this.store().findSessionIdByPassengerId(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void passengerMovesToLatestSession() {
+        final BookingEntity booking = this.booking(this.reference(), 1);
+        final UUID passengerId = booking.getPassengers().get(0).getId();
+        final String firstSessionId = this.sessionId();
+        final String secondSessionId = this.sessionId();
+        this.store().save(firstSessionId, booking);
+        this.store().save(secondSessionId, booking);
+        assertEquals(Optional.of(secondSessionId), this.store().findSessionIdByPassengerId(passengerId));
+
+        this.store().save(firstSessionId, this.booking(this.reference(), 1));
+        assertEquals(Optional.of(secondSessionId), this.store().findSessionIdByPassengerId(passengerId));
+    }
+
+    @Test
+    void findByReference() {
+        final String sessionId = this.sessionId();
+        final BookingEntity booking = this.booking(this.reference(), 1);
+        this.store().save(sessionId, booking);
+
+        assertTrue(this.store().existsByReference(booking.getReference()));
+        assertEquals(Optional.of(sessionId), this.store().findSessionIdByReference(booking.getReference()));
+        assertFalse(this.store().existsByReference(this.reference()));
+        assertTrue(this.store().findSessionIdByReference(this.reference()).isEmpty());
+    }
+
+    @Test
+    void findReferencesStartingWith() {
+        final String prefix = "prefix-" + UUID.randomUUID();
+        this.store().save(this.sessionId(), this.booking(prefix + "-1", 1));
+        this.store().save(this.sessionId(), this.booking(prefix + "-1", 1));
+        this.store().save(this.sessionId(), this.booking(prefix + "-2", 1));
+        this.store().save(this.sessionId(), this.booking(this.reference(), 1));
+
+        final List<String> references = this.store().findReferencesStartingWith(prefix);
+        assertEquals(2, references.size());
+        assertTrue(references.containsAll(List.of(prefix + "-1", prefix + "-2")));
+    }
+
+    @Test
+    void deleteByReference() {
+        final String reference = this.reference();
+        final String firstSessionId = this.sessionId();
+        final String secondSessionId = this.sessionId();
+        final String otherSessionId = this.sessionId();
+        final BookingEntity first = this.booking(reference, 1);
+        this.store().save(firstSessionId, first);
+        this.store().save(secondSessionId, this.booking(reference, 2));
+        this.store().save(otherSessionId, this.booking(this.reference(), 1));
+
+        final List<String> deleted = this.store().deleteByReference(reference);
+
+        assertEquals(2, deleted.size());
+        assertTrue(deleted.contains(firstSessionId));
+        assertTrue(deleted.contains(secondSessionId));
+        assertTrue(this.store().findBySessionId(firstSessionId).isEmpty());
+        assertTrue(this.store().findBySessionId(secondSessionId).isEmpty());
+        assertFalse(this.store().existsByReference(reference));
+        assertTrue(this.store().findSessionIdByPassengerId(first.getPassengers().get(0).getId()).isEmpty());
+        assertTrue(this.store().findBySessionId(otherSessionId).isPresent());
+        assertTrue(this.store().deleteByReference(reference).isEmpty());
+    }
+
+    @Test
+    void findSessionIdsByReferences() {
+        final String reference = this.reference();
+        final String otherReference = this.reference();
+        final String firstSessionId = this.sessionId();
+        final String secondSessionId = this.sessionId();
+        final String otherSessionId = this.sessionId();
+        this.store().save(firstSessionId, this.booking(reference, 1));
+        this.store().save(secondSessionId, this.booking(reference, 1));
+        this.store().save(otherSessionId, this.booking(otherReference, 1));
+        this.store().save(this.sessionId(), this.booking(this.reference(), 1));
+
+        assertEquals(Map.of(firstSessionId, reference, secondSessionId, reference, otherSessionId, otherReference),
+                this.store().findSessionIdsByReferences(List.of(reference, otherReference, this.reference())));
+        assertEquals(Map.of(), this.store().findSessionIdsByReferences(List.of()));
+    }
+
+    @Test
+    void deleteByReferenceOfOneSession() {
+        final String reference = this.reference();
+        final String sessionId = this.sessionId();
+        final String otherSessionId = this.sessionId();
+        final BookingEntity booking = this.booking(reference, 1);
+        this.store().save(sessionId, booking);
+        this.store().save(otherSessionId, this.booking(reference, 1));
+
+        assertFalse(this.store().deleteByReference(this.reference(), sessionId));
+        assertTrue(this.store().findBySessionId(sessionId).isPresent());
+
+        assertTrue(this.store().deleteByReference(reference, sessionId));
+        assertTrue(this.store().findBySessionId(sessionId).isEmpty());
+        assertTrue(this.store().findSessionIdByPassengerId(booking.getPassengers().get(0).getId()).isEmpty());
+        assertEquals(Optional.of(otherSessionId), this.store().findSessionIdByReference(reference));
+        assertFalse(this.store().deleteByReference(reference, sessionId));
+    }
+
+    @Test
+    void replaceAll() {
+        final String reference = this.reference();
+        final String oldSessionId = this.sessionId();
+        final BookingEntity old = this.booking(reference, 2);
+        this.store().save(oldSessionId, old);
+        final String otherSessionId = this.sessionId();
+        this.store().save(otherSessionId, this.booking(this.reference(), 1));
+
+        final Map<String, BookingEntity> bookings = new LinkedHashMap<>();
+        final BookingEntity replacing = this.booking(reference, 3);
+        replacing.getPassengers().get(0).setDccStatus(DccStatusEntity.passed());
+        bookings.put(this.sessionId(), replacing);
+        bookings.put(this.sessionId(), this.booking(this.reference(), 1));
+
+        assertEquals(List.of(oldSessionId), this.store().replaceAll(bookings));
+
+        assertTrue(this.store().findBySessionId(oldSessionId).isEmpty());
+        assertTrue(this.store().findSessionIdByPassengerId(old.getPassengers().get(0).getId()).isEmpty());
+        assertTrue(this.store().findBySessionId(otherSessionId).isPresent());
+        bookings.forEach((sessionId, booking) -> {
+            assertEquals(booking.getReference(), this.store().findBySessionId(sessionId).orElseThrow().getReference());
+            booking.getPassengers().forEach(passenger -> assertEquals(Optional.of(sessionId),
+                    this.store().findSessionIdByPassengerId(passenger.getId())));
+            assertEquals(Optional.of(booking.countPendingDcc()), this.store().countPendingDcc(sessionId));
+        });
+        assertTrue(this.store().replaceAll(Map.of()).isEmpty());
+    }
+
+    @Test
+    void updateDccStatus() {
+        final String sessionId = this.sessionId();
+        final BookingEntity booking = this.booking(this.reference(), 2);
+        this.store().save(sessionId, booking);
+        final UUID passengerId = booking.getPassengers().get(1).getId();
+
+        assertEquals(1, this.store().updateDccStatus(passengerId, DccStatusEntity.passed()));
+
+        final BookingEntity found = this.store().findBySessionId(sessionId).orElseThrow();
+        assertNull(found.getPassengers().get(0).getDccStatus());
+        final DccStatusEntity dccStatus = found.getPassengerById(passengerId).orElseThrow().getDccStatus();
+        assertNotNull(dccStatus);
+        assertEquals("PASSED", dccStatus.getResults().get(0).getResult());
+        assertEquals(0, this.store().updateDccStatus(UUID.randomUUID(), DccStatusEntity.passed()));
+    }
+
+    @Test
+    void countPendingDcc() {
+        final String sessionId = this.sessionId();
+        final BookingEntity booking = this.booking(this.reference(), 3);
+        booking.getPassengers().get(0).setDccStatus(DccStatusEntity.passed());
+        this.store().save(sessionId, booking);
+        assertEquals(Optional.of(2), this.store().countPendingDcc(sessionId));
+
+        this.store().updateDccStatus(booking.getPassengers().get(1).getId(), DccStatusEntity.failed());
+        this.store().updateDccStatus(booking.getPassengers().get(1).getId(), DccStatusEntity.passed());
+        this.store().updateDccStatus(booking.getPassengers().get(0).getId(), DccStatusEntity.failed());
+        assertEquals(Optional.of(1), this.store().countPendingDcc(sessionId));
+
+        final BookingEntity found = this.store().findBySessionId(sessionId).orElseThrow();
+        found.getPassengers().get(2).setDccStatus(DccStatusEntity.passed());
+        assertTrue(this.store().compareAndSave(sessionId, found));
+        assertEquals(Optional.of(0), this.store().countPendingDcc(sessionId));
+
+        this.store().save(sessionId, this.booking(this.reference(), 2));
+        assertEquals(Optional.of(2), this.store().countPendingDcc(sessionId));
+        assertTrue(this.store().countPendingDcc(this.sessionId()).isEmpty());
+    }
+
+    @Test
+    void saveKeepsDccStatus() {
+        final String sessionId = this.sessionId();
+        final BookingEntity booking = this.booking(this.reference(), 1);
+        booking.getPassengers().get(0).setDccStatus(DccStatusEntity.failed());
+        this.store().save(sessionId, booking);
+
+        final BookingEntity found = this.store().findBySessionId(sessionId).orElseThrow();
+        assertEquals("FAILED", found.getPassengers().get(0).getDccStatus().getResults().get(0).getResult());
+    }
+
+    @Test
+    void deleteBySessionIds() {
+        final String sessionId = this.sessionId();
+        final String otherSessionId = this.sessionId();
+        final BookingEntity booking = this.booking(this.reference(), 2);
+        this.store().save(sessionId, booking);
+        this.store().save(otherSessionId, this.booking(this.reference(), 1));
+        final long count = this.store().count();
+
+        assertEquals(List.of(sessionId), this.store().deleteBySessionIds(List.of(sessionId, this.sessionId())));
+
+        assertEquals(count - 1, this.store().count());
+        assertTrue(this.store().findBySessionId(sessionId).isEmpty());
+        assertFalse(this.store().existsByReference(booking.getReference()));
+        assertTrue(this.store().findSessionIdByPassengerId(booking.getPassengers().get(0).getId()).isEmpty());
+        assertTrue(this.store().findBySessionId(otherSessionId).isPresent());
+        assertTrue(this.store().deleteBySessionIds(List.of()).isEmpty());
+    }
+
+    @Test
+    void deleteExpired() {
+        this.store().deleteExpired(Instant.now().plusSeconds(60), Integer.MAX_VALUE);
+        final String firstSessionId = this.sessionId();
+        final String secondSessionId = this.sessionId();
+        final BookingEntity first = this.booking(this.reference(), 1);
+        this.store().save(firstSessionId, first);
+        this.store().save(secondSessionId, this.booking(this.reference(), 1));
+
+        assertTrue(this.store().deleteExpired(Instant.now().minusSeconds(60), Integer.MAX_VALUE).isEmpty());
+        assertEquals(List.of(firstSessionId), this.store().deleteExpired(Instant.now().plusSeconds(60), 1));
+
+        assertTrue(this.store().findBySessionId(firstSessionId).isEmpty());
+        assertTrue(this.store().findSessionIdByPassengerId(first.getPassengers().get(0).getId()).isEmpty());
+        assertTrue(this.store().findBySessionId(secondSessionId).isPresent());
+        assertEquals(1, this.store().count());
+    }
+
+    @Test
+    void presetsAreNotPurged() {
+        this.store().deleteExpired(Instant.now().plusSeconds(60), Integer.MAX_VALUE);
+        final String presetReference = BookingStore.PRESET_PREFIX + "-" + UUID.randomUUID();
+        final String presetSessionId = this.sessionId();
+        final String sessionId = this.sessionId();
+        final String expiredSessionId = this.sessionId();
+        final BookingEntity preset = this.booking(presetReference, 1);
+        this.store().save(presetSessionId, preset);
+        this.store().save(sessionId, this.booking(this.reference(), 1));
+        this.store().save(expiredSessionId, this.booking(this.reference(), 1));
+        try {
+            assertEquals(List.of(sessionId), this.store().deleteBySessionIds(List.of(presetSessionId, sessionId)));
+            // the older preset neither expires nor takes the place of the expired booking
+            assertEquals(List.of(expiredSessionId),
+                    this.store().deleteExpired(Instant.now().plusSeconds(60), 1));
+            assertTrue(this.store().deleteExpired(Instant.now().plusSeconds(60), Integer.MAX_VALUE).isEmpty());
+
+            assertEquals(presetSessionId, this.store().findSessionIdByReference(presetReference).orElseThrow());
+            assertEquals(presetSessionId,
+                    this.store().findSessionIdByPassengerId(preset.getPassengers().get(0).getId()).orElseThrow());
+        } finally {
+            this.store().deleteByReference(presetReference);
+        }
+    }
+
+    @Test
+    void compareAndSave() {
+        final String sessionId = this.sessionId();
+        this.store().save(sessionId, this.booking(this.reference(), 2));
+        final BookingEntity first = this.store().findBySessionId(sessionId).orElseThrow();
+        final BookingEntity second = this.store().findBySessionId(sessionId).orElseThrow();
+        final long version = first.getVersion();
+
+        first.getPassengers().get(0).setServiceIdUsed("first");
+        assertTrue(this.store().compareAndSave(sessionId, first));
+        assertEquals(version + 1, first.getVersion());
+
+        second.getPassengers().get(1).setServiceIdUsed("second");
+        assertFalse(this.store().compareAndSave(sessionId, second));
+
+        final BookingEntity found = this.store().findBySessionId(sessionId).orElseThrow();
+        assertEquals(version + 1, found.getVersion());
+        assertEquals("first", found.getPassengers().get(0).getServiceIdUsed());
+        assertNull(found.getPassengers().get(1).getServiceIdUsed());
+        assertFalse(this.store().compareAndSave(this.sessionId(), found));
+    }
+
+    @Test
+    void writesIncrementVersion() {
+        final String sessionId = this.sessionId();
+        final BookingEntity booking = this.booking(this.reference(), 1);
+        this.store().save(sessionId, booking);
+        final BookingEntity read = this.store().findBySessionId(sessionId).orElseThrow();
+
+        this.store().updateDccStatus(booking.getPassengers().get(0).getId(), DccStatusEntity.passed());
+        final BookingEntity afterResult = this.store().findBySessionId(sessionId).orElseThrow();
+        assertTrue(afterResult.getVersion() > read.getVersion());
+        assertFalse(this.store().compareAndSave(sessionId, read));
+
+        this.store().save(sessionId, booking);
+        assertTrue(this.store().findBySessionId(sessionId).orElseThrow().getVersion() > afterResult.getVersion());
+        assertFalse(this.store().compareAndSave(sessionId, afterResult));
+    }
+
+    @Test
+    void recreatedBookingsDoNotRepeatVersions() {
+        final String sessionId = this.sessionId();
+        final BookingEntity booking = this.booking(this.reference(), 1);
+        final Set<Long> versions = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            // created, written a few times and deleted again within the same milliseconds
+            this.store().save(sessionId, booking);
+            assertTrue(versions.add(this.store().findVersion(sessionId).orElseThrow()));
+            this.store().save(sessionId, booking);
+            assertTrue(versions.add(this.store().findVersion(sessionId).orElseThrow()));
+            this.store().updateDccStatus(booking.getPassengers().get(0).getId(), DccStatusEntity.passed());
+            assertTrue(versions.add(this.store().findVersion(sessionId).orElseThrow()));
+            this.store().deleteByReference(booking.getReference());
+        }
+    }
+
+    @Test
+    void sessionsSharingAPassengerIdKeepTheirDccStatus() {
+        final String firstSessionId = this.sessionId();
+        final BookingEntity first = this.booking(this.reference(), 2);
+        final UUID passengerId = first.getPassengers().get(0).getId();
+        this.store().save(firstSessionId, first);
+        assertEquals(1, this.store().updateDccStatus(passengerId, DccStatusEntity.passed()));
+
+        // the same passenger ID in another booking, e.g. the fixed IDs of demo passengers
+        final String secondSessionId = this.sessionId();
+        final BookingEntity second = this.booking(this.reference(), 1);
+        second.getPassengers().get(0).setId(passengerId);
+        this.store().save(secondSessionId, second);
+        assertEquals(Optional.of(secondSessionId), this.store().findSessionIdByPassengerId(passengerId));
+        assertEquals(1, this.store().updateDccStatus(passengerId, DccStatusEntity.failed()));
+
+        final BookingEntity firstFound = this.store().findBySessionId(firstSessionId).orElseThrow();
+        assertEquals("PASSED", firstFound.getPassengerById(passengerId).orElseThrow().getDccStatus().getResults()
+                .get(0).getResult());
+        assertEquals("PASSED", this.store().findWithPassengerBySessionId(firstSessionId, passengerId).orElseThrow()
+                .getPassengers().get(0).getDccStatus().getResults().get(0).getResult());
+        assertEquals(Optional.of(1), this.store().countPendingDcc(firstSessionId));
+        final BookingEntity secondFound = this.store().findBySessionId(secondSessionId).orElseThrow();
+        assertEquals("FAILED", secondFound.getPassengers().get(0).getDccStatus().getResults().get(0).getResult());
+        assertEquals(Optional.of(0), this.store().countPendingDcc(secondSessionId));
+
+        // deleting one booking keeps the passenger of the other one
+        this.store().deleteByReference(second.getReference());
+        assertEquals("PASSED", this.store().findBySessionId(firstSessionId).orElseThrow()
+                .getPassengerById(passengerId).orElseThrow().getDccStatus().getResults().get(0).getResult());
+    }
+
+    @Test
+    void replaceAllDeletesBookingsWithTheSameReference() {
+        final String reference = this.reference();
+        final String oldSessionId = this.sessionId();
+        final BookingEntity old = this.booking(reference, 2);
+        this.store().save(oldSessionId, old);
+
+        final String sessionId = this.sessionId();
+        final BookingEntity replacing = this.booking(reference, 1);
+        final String otherSessionId = this.sessionId();
+        final BookingEntity other = this.booking(this.reference(), 3);
+        final Map<String, BookingEntity> bookings = new LinkedHashMap<>();
+        bookings.put(sessionId, replacing);
+        bookings.put(otherSessionId, other);
+
+        assertEquals(List.of(oldSessionId), this.store().replaceAll(bookings));
+        assertTrue(this.store().findBySessionId(oldSessionId).isEmpty());
+        assertTrue(this.store().findSessionIdByPassengerId(old.getPassengers().get(0).getId()).isEmpty());
+        assertEquals(Optional.of(sessionId), this.store().findSessionIdByReference(reference));
+        assertEquals(Optional.of(sessionId),
+                this.store().findSessionIdByPassengerId(replacing.getPassengers().get(0).getId()));
+        assertEquals(Optional.of(1), this.store().countPendingDcc(sessionId));
+        assertTrue(this.store().findVersion(sessionId).isPresent());
+        assertEquals(3, this.store().findBySessionId(otherSessionId).orElseThrow().getPassengers().size());
+        assertEquals(Optional.of(otherSessionId),
+                this.store().findSessionIdByPassengerId(other.getPassengers().get(2).getId()));
+    }
+
+    @Test
+    void replaceAllReplacesTheBookingOfTheSession() {
+        final String sessionId = this.sessionId();
+        final BookingEntity old = this.booking(this.reference(), 1);
+        this.store().save(sessionId, old);
+        final BookingEntity replacing = this.booking(this.reference(), 2);
+
+        assertEquals(List.of(), this.store().replaceAll(Map.of(sessionId, replacing)));
+        final BookingEntity found = this.store().findBySessionId(sessionId).orElseThrow();
+        assertEquals(replacing.getReference(), found.getReference());
+        assertEquals(2, found.getPassengers().size());
+        assertFalse(this.store().existsByReference(old.getReference()));
+        assertTrue(this.store().findSessionIdByPassengerId(old.getPassengers().get(0).getId()).isEmpty());
+        assertEquals(Optional.of(sessionId),
+                this.store().findSessionIdByPassengerId(replacing.getPassengers().get(1).getId()));
+    }
+
+    @Test
+    void replaceAllWithoutBookings() {
+        assertEquals(List.of(), this.store().replaceAll(Map.of()));
+    }
+
+    protected String sessionId() {
+        return "session-" + UUID.randomUUID();
+    }
+
+    protected String reference() {
+        return "reference-" + UUID.randomUUID();
+    }
+
+    protected BookingEntity booking(final String reference, final int passengers) {
+        final BookingEntity booking = BookingEntity.random(reference, SYNTHETIC_DATA);
+        for (int i = 0; i < passengers; i++) {
+            final PassengerEntity passenger = new PassengerEntity();
+            passenger.setId(this.idGenerator.nextId());
+            passenger.setJti(this.idGenerator.nextId().toString());
+            passenger.setForename("Forename " + i);
+            passenger.setLastname("Lastname " + i);
+            booking.addPassenger(passenger);
+        }
+        return booking;
+    }
+}
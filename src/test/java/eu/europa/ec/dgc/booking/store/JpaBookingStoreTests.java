@@ -0,0 +1,69 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.europa.ec.dgc.booking.entity.BookingEntity;
+import eu.europa.ec.dgc.booking.entity.DccStatusEntity;
+import eu.europa.ec.dgc.booking.repository.BookingH2Repository;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class JpaBookingStoreTests extends BookingStoreContractTests {
+
+    @Autowired
+    private JpaBookingStore store;
+
+    @Autowired
+    private BookingH2Repository bookingRepository;
+
+    @Override
+    protected BookingStore store() {
+        return this.store;
+    }
+
+    @Test
+    void passengerRowsAreReadOnlyAfterADccStatusUpdate() {
+        final String sessionId = this.sessionId();
+        final BookingEntity booking = this.booking(this.reference(), 2);
+        final UUID passengerId = booking.getPassengers().get(1).getId();
+        this.store.save(sessionId, booking);
+        assertFalse(this.bookingRepository.findById(sessionId).orElseThrow().isDccUpdated());
+
+        this.store.updateDccStatus(passengerId, DccStatusEntity.passed());
+        assertTrue(this.bookingRepository.findById(sessionId).orElseThrow().isDccUpdated());
+
+        // writing the booking takes the status into the document
+        final BookingEntity found = this.store.findBySessionId(sessionId).orElseThrow();
+        assertTrue(this.store.compareAndSave(sessionId, found));
+        assertFalse(this.bookingRepository.findById(sessionId).orElseThrow().isDccUpdated());
+        assertEquals("PASSED", this.store.findBySessionId(sessionId).orElseThrow().getPassengerById(passengerId)
+                .orElseThrow().getDccStatus().getResults().get(0).getResult());
+        assertEquals("PASSED", this.store.findWithPassengerBySessionId(sessionId, passengerId).orElseThrow()
+                .getPassengers().get(0).getDccStatus().getResults().get(0).getResult());
+    }
+}
@@ -0,0 +1,193 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Open addressing, deletion and resizing of {@link PassengerIndex} with keys chosen to collide.
+ */
+class PassengerIndexTests {
+
+    private final Random random = new Random(4L);
+
+    @Test
+    void putOverwriteAndRemove() {
+        final PassengerIndex index = new PassengerIndex();
+        final UUID first = UUID.randomUUID();
+        final UUID second = UUID.randomUUID();
+        index.put("a", List.of(first, second));
+        assertEquals("a", index.get(first));
+        assertEquals("a", index.get(second));
+        assertEquals(2, index.size());
+
+        // passengers of a session are replaced as a whole
+        final UUID third = UUID.randomUUID();
+        index.put("a", List.of(second, third));
+        assertNull(index.get(first));
+        assertEquals("a", index.get(third));
+        assertEquals(2, index.size());
+
+        // a passenger moved to another session is kept when the old session is removed
+        index.put("b", List.of(second));
+        assertEquals("b", index.get(second));
+        index.remove("a");
+        assertEquals("b", index.get(second));
+        assertNull(index.get(third));
+        assertEquals(1, index.size());
+
+        index.remove("b");
+        index.remove("unknown");
+        assertNull(index.get(second));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void collisionChainsWrapAroundAndSurviveRemoval() {
+        final int lastSlot = PassengerIndex.INITIAL_CAPACITY - 1;
+        // a, b and c share the last slot of stripe 0, so b and c wrap around to slots 0 and 1,
+        // d belongs to slot 0 and is pushed to slot 2
+        final UUID a = this.keyFor(0, lastSlot);
+        final UUID b = this.keyFor(0, lastSlot);
+        final UUID c = this.keyFor(0, lastSlot);
+        final UUID d = this.keyFor(0, 0);
+        final UUID missing = this.keyFor(0, lastSlot);
+        final PassengerIndex index = new PassengerIndex();
+        index.put("a", List.of(a));
+        index.put("b", List.of(b));
+        index.put("c", List.of(c));
+        index.put("d", List.of(d));
+        assertNull(index.get(missing));
+
+        index.remove("a");
+        assertNull(index.get(a));
+        assertEquals("b", index.get(b));
+        assertEquals("c", index.get(c));
+        assertEquals("d", index.get(d));
+
+        index.remove("c");
+        assertEquals("b", index.get(b));
+        assertEquals("d", index.get(d));
+        assertNull(index.get(missing));
+
+        index.put("a", List.of(a));
+        index.remove("b");
+        assertEquals("a", index.get(a));
+        assertEquals("d", index.get(d));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void stripesGrowBeyondTheirInitialCapacity() {
+        final PassengerIndex index = new PassengerIndex();
+        final List<UUID> sameStripe = new ArrayList<>();
+        for (int i = 0; i < PassengerIndex.INITIAL_CAPACITY * 8; i++) {
+            sameStripe.add(this.keyFor(3, i % PassengerIndex.INITIAL_CAPACITY));
+        }
+        for (int i = 0; i < sameStripe.size(); i++) {
+            index.put("s" + i, List.of(sameStripe.get(i)));
+        }
+        assertEquals(sameStripe.size(), index.size());
+        for (int i = 0; i < sameStripe.size(); i++) {
+            assertEquals("s" + i, index.get(sameStripe.get(i)));
+        }
+        for (int i = 0; i < sameStripe.size(); i += 2) {
+            index.remove("s" + i);
+        }
+        for (int i = 0; i < sameStripe.size(); i++) {
+            assertEquals(i % 2 == 0 ? null : "s" + i, index.get(sameStripe.get(i)));
+        }
+    }
+
+    @Test
+    void readersNeverMissStableEntriesWhileWritersResize() throws Exception {
+        final PassengerIndex index = new PassengerIndex();
+        final List<UUID> stable = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            stable.add(UUID.randomUUID());
+        }
+        index.put("stable", stable);
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(executor.submit(() -> {
+                    int misses = 0;
+                    while (running.get()) {
+                        for (UUID passengerId : stable) {
+                            if (!"stable".equals(index.get(passengerId))) {
+                                misses++;
+                            }
+                        }
+                    }
+                    return misses;
+                }));
+            }
+            final Future<?> writer = executor.submit(() -> {
+                // every round grows all stripes from scratch and shrinks them again by backward shifts
+                for (int round = 0; round < 20; round++) {
+                    final List<String> sessions = new ArrayList<>();
+                    for (int i = 0; i < 2_000; i++) {
+                        final String sessionId = round + "-" + i;
+                        index.put(sessionId, List.of(UUID.randomUUID(), UUID.randomUUID()));
+                        sessions.add(sessionId);
+                    }
+                    sessions.forEach(index::remove);
+                }
+            });
+            writer.get(60, TimeUnit.SECONDS);
+            running.set(false);
+            for (Future<Integer> reader : readers) {
+                assertEquals(0, reader.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+        assertEquals(stable.size(), index.size());
+    }
+
+    // random key that falls into the given stripe and home slot of a table with initial capacity
+    private UUID keyFor(final int stripe, final int slot) {
+        while (true) {
+            final UUID key = new UUID(this.random.nextLong(), this.random.nextLong());
+            final int hash = PassengerIndex.hash(key.getMostSignificantBits(), key.getLeastSignificantBits());
+            if ((hash & (PassengerIndex.STRIPES - 1)) == stripe
+                && ((hash >>> PassengerIndex.STRIPE_BITS) & (PassengerIndex.INITIAL_CAPACITY - 1)) == slot) {
+                return key;
+            }
+        }
+    }
+}
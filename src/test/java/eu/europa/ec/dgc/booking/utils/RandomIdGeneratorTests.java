@@ -0,0 +1,94 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Version, variant and randomness of generated passenger IDs.
+ */
+class RandomIdGeneratorTests {
+
+    private static final int IDS = 10_000;
+
+    private final IdGenerator idGenerator = new RandomIdGenerator();
+
+    @Test
+    void idsAreVersion4WithIetfVariant() {
+        for (int i = 0; i < IDS; i++) {
+            final UUID id = this.idGenerator.nextId();
+            assertEquals(4, id.version());
+            assertEquals(2, id.variant());
+            assertEquals(id, UUID.fromString(id.toString()));
+        }
+    }
+
+    @Test
+    void allNonFixedBitsAreRandom() {
+        long msbSet = 0;
+        long msbClear = 0;
+        long lsbSet = 0;
+        long lsbClear = 0;
+        for (int i = 0; i < IDS; i++) {
+            final UUID id = this.idGenerator.nextId();
+            msbSet |= id.getMostSignificantBits();
+            msbClear |= ~id.getMostSignificantBits();
+            lsbSet |= id.getLeastSignificantBits();
+            lsbClear |= ~id.getLeastSignificantBits();
+        }
+        // Only the 4 version and 2 variant bits are fixed, the remaining 122 bits take both values
+        assertEquals(~0xF000L, msbSet & msbClear);
+        assertEquals(~0xC000000000000000L, lsbSet & lsbClear);
+    }
+
+    @Test
+    void concurrentlyGeneratedIdsAreUnique() throws Exception {
+        final int threads = 8;
+        final Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = IntStream.range(0, threads)
+                .mapToObj(t -> executor.submit(() -> IntStream.range(0, IDS)
+                    .forEach(i -> ids.add(this.idGenerator.nextId()))))
+                .collect(Collectors.toList());
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * IDS, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id.version() == 4));
+    }
+}
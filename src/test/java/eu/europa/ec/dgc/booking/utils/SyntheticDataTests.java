@@ -0,0 +1,65 @@
+/*-
+ * ---license-start
+ * European Digital COVID Certificate Booking Demo / dgca-booking-demo-backend
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.booking.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reproducibility of seeded {@link SyntheticData}.
+ */
+class SyntheticDataTests {
+
+    private static final int DRAWS = 200;
+
+    @Test
+    void seededSequenceDoesNotDependOnTheThread() throws Exception {
+        final List<String> singleThreaded = draw(new SyntheticData(7L, 50), 1);
+        // consecutive requests served by different worker threads, as in Tomcat
+        final List<String> pooled = draw(new SyntheticData(7L, 50), 4);
+        assertEquals(singleThreaded, pooled);
+    }
+
+    @Test
+    void seedsDiffer() throws Exception {
+        assertNotEquals(draw(new SyntheticData(7L, 50), 1), draw(new SyntheticData(8L, 50), 1));
+    }
+
+    private static List<String> draw(final SyntheticData data, final int threads) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<String> values = new ArrayList<>();
+            for (int i = 0; i < DRAWS; i++) {
+                values.add(executor.submit(() -> data.firstName() + ' ' + data.lastName() + ' ' + data.cityName()
+                        + ' ' + data.countryCode() + ' ' + data.nextInt(100)).get());
+            }
+            return values;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}